@@ -0,0 +1,150 @@
+package org.jpalite;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs EntityManager operations on the executor, or on virtual threads by default, each with its own connection
+public class AsyncEntityManager implements AutoCloseable {
+
+    @Getter
+    private final EntityManager entityManager;
+    private final DataSource dataSource;
+    private final Executor executor;
+    // the default executor is owned, and shut down on close
+    private final ExecutorService ownedExecutor;
+
+    public AsyncEntityManager(EntityManager entityManager, DataSource dataSource) {
+        this.entityManager = entityManager;
+        this.dataSource = dataSource;
+        this.ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.executor = ownedExecutor;
+    }
+
+    public AsyncEntityManager(EntityManager entityManager, DataSource dataSource, Executor executor) {
+        this.entityManager = entityManager;
+        this.dataSource = dataSource;
+        this.ownedExecutor = null;
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<List<T>> getResultList(Class<T> clazz, String sql, Object... params) {
+        return submit(conn -> entityManager.getResultList(conn, clazz, sql, params));
+    }
+
+    public <T> CompletableFuture<T> getSingleResult(Class<T> clazz, String sql, Object... params) {
+        return submit(conn -> entityManager.getSingleResult(conn, clazz, sql, params));
+    }
+
+    public CompletableFuture<Long> execute(String sql, Object... params) {
+        return submit(conn -> entityManager.execute(conn, sql, params));
+    }
+
+    // write operations are committed according to the auto-commit mode of the data source connections
+    public CompletableFuture<Void> insert(Object object) {
+        return submit(conn -> {
+            entityManager.insert(conn, object);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> batchInsert(List<?> objects) {
+        return submit(conn -> {
+            entityManager.batchInsert(conn, objects);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> update(Object object) {
+        return submit(conn -> {
+            entityManager.update(conn, object);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> delete(Object object) {
+        return submit(conn -> entityManager.delete(conn, object));
+    }
+
+    // runs any work with a connection of its own
+    public <R> CompletableFuture<R> submit(ConnectionCallback<R> callback) {
+        Task<R> ret = new Task<>(callback);
+        executor.execute(ret);
+        return ret;
+    }
+
+    // starts a group of operations that are joined together, and cancelled together when one of them fails
+    public FanOut fanOut() {
+        return new FanOut(this);
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    private <R> R call(ConnectionCallback<R> callback) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            try {
+                return callback.execute(conn);
+            } finally {
+                entityManager.closeStatements(conn);
+            }
+        }
+    }
+
+    private class Task<R> extends CompletableFuture<R> implements Runnable {
+
+        private final ConnectionCallback<R> callback;
+        private Thread runner;
+
+        private Task(ConnectionCallback<R> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                complete(call(callback));
+            } catch (SQLException | RuntimeException | Error ex) {
+                completeExceptionally(ex);
+            } finally {
+                // a cancellation racing with completion must not leave the executor thread interrupted
+                synchronized (this) {
+                    runner = null;
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean ret = super.cancel(mayInterruptIfRunning);
+            if (ret && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return ret;
+        }
+
+    }
+
+}
@@ -0,0 +1,12 @@
+package org.jpalite;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Work run asynchronously with a connection borrowed from a data source, which is closed once the callback returns
+@FunctionalInterface
+public interface ConnectionCallback<R> {
+
+    R execute(Connection conn) throws SQLException;
+
+}
@@ -1,32 +1,138 @@
 package org.jpalite;
 
+import lombok.Getter;
+import lombok.Setter;
+import org.jpalite.buffer.RowBuffer;
+import org.jpalite.annotation.Table;
+import org.jpalite.cache.EntityCache;
+import org.jpalite.cache.QueryCache;
+import org.jpalite.columnar.ColumnarReader;
+import org.jpalite.columnar.ColumnarResult;
+import org.jpalite.common.BatchChunker;
+import org.jpalite.common.CachedStatement;
+import org.jpalite.common.IdKeys;
+import org.jpalite.common.SnapshotStore;
+import org.jpalite.common.SnapshotStore.Snapshot;
+import org.jpalite.common.StatementCache;
 import org.jpalite.common.StatementUtils;
+import org.jpalite.dialect.Dialect;
+import org.jpalite.dialect.H2Dialect;
+import org.jpalite.dto.BatchConfig;
+import org.jpalite.partition.Partition;
+import org.jpalite.partition.PartitionedQuery;
 import org.jpalite.processor.row.BeanProcessor;
+import org.jpalite.processor.row.BeanProcessorCache;
 import org.jpalite.processor.row.RowProcessor;
 import org.jpalite.processor.row.RowProcessorFactory;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class EntityManager {
 
+    private static final System.Logger LOGGER = System.getLogger(EntityManager.class.getName());
     private static final int DEFAULT_FETCH_SIZE = 1_000;
+    // smallest IN list of findAllByIds
+    private static final int MIN_ID_CHUNK_SIZE = 8;
+
+    // when true, beans are mapped by processors composed per column layout instead of the reflective loop
+    @Getter
+    @Setter
+    private boolean generatedMappers;
+
+    @Getter
+    @Setter
+    private BatchConfig batchConfig = new BatchConfig();
+
+    // prepared statements cached per connection, 0 disables the cache
+    @Getter
+    @Setter
+    private int statementCacheSize;
+
+    // when true, parameters are bound with setObject and their ParameterMetaData types
+    @Getter
+    @Setter
+    private boolean metadataParameterTypes;
+
+    // connections are borrowed from it, and returned, by the overloads without a Connection argument
+    @Getter
+    @Setter
+    private DataSource dataSource;
+
+    // used by findById in auto-commit mode only; writes invalidate entries when executed, not on commit, see EntityCache
+    @Getter
+    @Setter
+    private EntityCache entityCache;
+
+    // used by getCachedResultList, null disables it
+    @Getter
+    @Setter
+    private QueryCache queryCache;
+
+    // generates the statements whose syntax differs between databases, such as upserts
+    @Getter
+    @Setter
+    private Dialect dialect = new H2Dialect();
+
+    // when true, updates only write the columns changed since the bean was read, and skip unchanged beans
+    @Getter
+    @Setter
+    private boolean dirtyChecking;
+
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final SnapshotStore snapshots = new SnapshotStore();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    public <T> List<T> getResultList(Class<T> clazz, String sql, Object... params) throws SQLException {
+        return withConnection(conn -> getResultList(conn, clazz, sql, params));
+    }
 
     public <T> List<T> getResultList(Connection conn, Class<T> clazz, String sql, Object... params) throws SQLException {
         return getResultList(conn, DEFAULT_FETCH_SIZE, clazz, sql, params);
     }
 
+    public <T> List<T> getCachedResultList(Class<T> clazz, Collection<String> tables, String sql, Object... params) throws SQLException {
+        if (queryCache == null) {
+            return getResultList(clazz, sql, params);
+        }
+        return queryCache.get(clazz, tables, sql, params, () -> getResultList(clazz, sql, params));
+    }
+
+    // writes to any of the tables drop the result, which is shared and unmodifiable; auto-commit reads only
+    public <T> List<T> getCachedResultList(Connection conn, Class<T> clazz, Collection<String> tables, String sql, Object... params) throws SQLException {
+        if (queryCache == null || !conn.getAutoCommit()) {
+            return getResultList(conn, clazz, sql, params);
+        }
+        return queryCache.get(clazz, tables, sql, params, () -> getResultList(conn, clazz, sql, params));
+    }
+
     public <T> List<T> getResultList(Connection conn, int fetchSize, Class<T> clazz, String sql, Object... params) throws SQLException {
         List<T> ret = new ArrayList<>();
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
             stmt.setFetchSize(fetchSize);
-            ParameterMetaData parameterMetaData = stmt.getParameterMetaData();
-            StatementUtils.checkStatementParameters(parameterMetaData, params);
-            StatementUtils.setStatementParameters(stmt, parameterMetaData, params);
+            cs.checkParameters(params);
+            bindParameters(cs, params);
             try (ResultSet rs = stmt.executeQuery()) {
-                RowProcessor<T> rowProcessor = RowProcessorFactory.create(clazz, rs.getMetaData());
+                checkNoStreams(clazz, rs.getMetaData());
+                RowProcessor<T> rowProcessor = createRowProcessor(clazz, rs.getMetaData());
                 while (rs.next()) {
                     ret.add(rowProcessor.process(rs));
                 }
@@ -35,14 +141,80 @@ public class EntityManager {
         return ret.isEmpty() ? Collections.emptyList() : ret;
     }
 
+    // no data source overload, since the stream outlives the call
+    public <T> Stream<T> getResultStream(Connection conn, Class<T> clazz, String sql, Object... params) throws SQLException {
+        return getResultStream(conn, DEFAULT_FETCH_SIZE, clazz, sql, params);
+    }
+
+    public <T> Stream<T> getResultStream(Connection conn, int fetchSize, Class<T> clazz, String sql, Object... params) throws SQLException {
+        return getResultIterator(conn, fetchSize, clazz, sql, params).stream();
+    }
+
+    public <T> ResultIterator<T> getResultIterator(Connection conn, Class<T> clazz, String sql, Object... params) throws SQLException {
+        return getResultIterator(conn, DEFAULT_FETCH_SIZE, clazz, sql, params);
+    }
+
+    public <T> ResultIterator<T> getResultIterator(Connection conn, int fetchSize, Class<T> clazz, String sql, Object... params) throws SQLException {
+        // statement and result set stay open until the iterator is closed or exhausted
+        CachedStatement cs = prepareStatement(conn, sql);
+        ResultSet rs = null;
+        try {
+            PreparedStatement stmt = cs.getStatement();
+            stmt.setFetchSize(fetchSize);
+            cs.checkParameters(params);
+            bindParameters(cs, params);
+            rs = stmt.executeQuery();
+            RowProcessor<T> rowProcessor = createRowProcessor(clazz, rs.getMetaData());
+            return new ResultIterator<>(cs, rs, rowProcessor, sql);
+        } catch (SQLException | RuntimeException ex) {
+            try (cs; ResultSet ignored = rs) {
+                throw ex;
+            }
+        }
+    }
+
+    public <T> long forEach(Class<T> clazz, String sql, Consumer<? super T> consumer, Object... params) throws SQLException {
+        return withConnection(conn -> forEach(conn, clazz, sql, consumer, params));
+    }
+
+    public <T> long forEach(Connection conn, Class<T> clazz, String sql, Consumer<? super T> consumer, Object... params) throws SQLException {
+        return forEach(conn, DEFAULT_FETCH_SIZE, clazz, sql, false, consumer, params);
+    }
+
+    // when reuseInstance is true, the same bean instance is populated for every row, so consumers must not retain it
+    public <T> long forEach(Connection conn, int fetchSize, Class<T> clazz, String sql, boolean reuseInstance, Consumer<? super T> consumer, Object... params) throws SQLException {
+        long count = 0;
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            stmt.setFetchSize(fetchSize);
+            cs.checkParameters(params);
+            bindParameters(cs, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowProcessor<T> rowProcessor = createRowProcessor(clazz, rs.getMetaData());
+                T instance = null;
+                while (rs.next()) {
+                    instance = reuseInstance ? rowProcessor.process(rs, instance) : rowProcessor.process(rs);
+                    consumer.accept(instance);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public <T> T getSingleResult(Class<T> clazz, String sql, Object... params) throws SQLException {
+        return withConnection(conn -> getSingleResult(conn, clazz, sql, params));
+    }
+
     public <T> T getSingleResult(Connection conn, Class<T> clazz, String sql, Object... params) throws SQLException {
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
             stmt.setFetchSize(2);
-            ParameterMetaData parameterMetaData = stmt.getParameterMetaData();
-            StatementUtils.checkStatementParameters(parameterMetaData, params);
-            StatementUtils.setStatementParameters(stmt, parameterMetaData, params);
+            cs.checkParameters(params);
+            bindParameters(cs, params);
             try (ResultSet rs = stmt.executeQuery()) {
-                RowProcessor<T> rowProcessor = RowProcessorFactory.create(clazz, rs.getMetaData());
+                checkNoStreams(clazz, rs.getMetaData());
+                RowProcessor<T> rowProcessor = createRowProcessor(clazz, rs.getMetaData());
                 if (rs.next()) {
                     T ret = rowProcessor.process(rs);
                     if (rs.next()) {
@@ -56,63 +228,766 @@ public class EntityManager {
         }
     }
 
+    public <T> T findById(Class<T> clazz, Object... ids) throws SQLException {
+        return withConnection(conn -> findById(conn, clazz, ids));
+    }
+
+    // ids are given in the declaration order of the @Id fields
+    public <T> T findById(Connection conn, Class<T> clazz, Object... ids) throws SQLException {
+        String sql = BeanProcessorCache.getWriteProcessor(clazz).generateSelectByIdStatement();
+        if (entityCache == null || !conn.getAutoCommit()) {
+            return getSingleResult(conn, clazz, sql, ids);
+        }
+        T ret = entityCache.get(clazz, ids, () -> getSingleResult(conn, clazz, sql, ids));
+        BeanProcessor<T> bp = BeanProcessorCache.getWriteProcessor(clazz);
+        BitSet loadedColumns = bp.getSelectedByIdColumns();
+        return dirtyChecking || loadedColumns != null ? track(bp, ret, loadedColumns) : ret;
+    }
+
+    public <T> boolean loadLazyColumns(T bean) throws SQLException {
+        return withConnection(conn -> loadLazyColumns(conn, bean));
+    }
+
+    // reads the lazy columns of the bean by its ids, into the bean itself; returns false when its row is not found
+    @SuppressWarnings("unchecked")
+    public <T> boolean loadLazyColumns(Connection conn, T bean) throws SQLException {
+        if (bean == null) {
+            throw new SQLException("Bean object is null");
+        }
+        Class<T> clazz = (Class<T>) bean.getClass();
+        BeanProcessor<T> bp = BeanProcessorCache.getWriteProcessor(clazz);
+        Object[] ids = bp.getIdParameters(bean);
+        return query(conn, 2, bp.generateSelectLazyStatement(), ids, rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+            if (RowProcessorFactory.create(clazz, rs.getMetaData(), generatedMappers).process(rs, bean) != bean) {
+                throw new SQLException(String.format("Lazy columns cannot be loaded into immutable beans of class %s", clazz.getSimpleName()));
+            }
+            // the loaded values are part of the snapshot, so that they are not seen as changed, and updates write them
+            Snapshot snapshot = snapshots.get(bean);
+            if (snapshot != null) {
+                BitSet lazyColumns = bp.getLazyColumns();
+                Object[] values = snapshot.values();
+                if (values != null) {
+                    Object[] loaded = bp.getInsertParameters(bean);
+                    for (int i = lazyColumns.nextSetBit(0); i >= 0; i = lazyColumns.nextSetBit(i + 1)) {
+                        values[i] = loaded[i];
+                    }
+                }
+                BitSet loadedColumns = snapshot.loadedColumns();
+                if (loadedColumns != null) {
+                    loadedColumns = (BitSet) loadedColumns.clone();
+                    loadedColumns.or(lazyColumns);
+                    if (loadedColumns.cardinality() == bp.getInsertParameterCount()) {
+                        loadedColumns = null;
+                    }
+                }
+                if (values == null && loadedColumns == null) {
+                    snapshots.remove(bean);
+                } else {
+                    snapshots.put(bean, values, loadedColumns);
+                }
+            }
+            return true;
+        });
+    }
+
+    public <T> Map<Object, T> findAllByIds(Class<T> clazz, Collection<?> ids) throws SQLException {
+        return withConnection(conn -> findAllByIds(conn, clazz, ids));
+    }
+
+    // composite ids are lists in @Id declaration order; ids not found are missing from the map
+    public <T> Map<Object, T> findAllByIds(Connection conn, Class<T> clazz, Collection<?> ids) throws SQLException {
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(clazz);
+        // fails for classes without @Id fields
+        bp.generateSelectByIdStatement();
+        int idCount = bp.getIdParameterCount();
+        // distinct ids by normalized key
+        Map<List<Object>, Object> keys = new LinkedHashMap<>();
+        List<Object[]> idValues = new ArrayList<>(ids.size());
+        for (var id : ids) {
+            Object[] values = getIdValues(clazz, id, idCount);
+            if (keys.putIfAbsent(IdKeys.of(values), id) == null) {
+                idValues.add(values);
+            }
+        }
+
+        Map<List<Object>, T> found = new HashMap<>(idValues.size());
+        int maxChunkSize = Math.max(1, batchConfig.getMaxParameters() / idCount);
+        for (int from = 0; from < idValues.size(); from += maxChunkSize) {
+            List<Object[]> chunk = idValues.subList(from, Math.min(from + maxChunkSize, idValues.size()));
+            int chunkSize = Math.min(MIN_ID_CHUNK_SIZE, maxChunkSize);
+            while (chunkSize < chunk.size()) {
+                chunkSize = Math.min(chunkSize * 2, maxChunkSize);
+            }
+            // padding repeats the last id, which matches the same rows
+            Object[] params = new Object[chunkSize * idCount];
+            for (int i = 0; i < chunkSize; i++) {
+                System.arraycopy(chunk.get(Math.min(i, chunk.size() - 1)), 0, params, i * idCount, idCount);
+            }
+            for (var bean : getResultList(conn, clazz, bp.generateSelectByIdsStatement(chunkSize), params)) {
+                found.put(IdKeys.of(bp.getIdParameters(bean)), bean);
+            }
+        }
+
+        Map<Object, T> ret = new LinkedHashMap<>(found.size() * 2);
+        for (var entry : keys.entrySet()) {
+            T bean = found.get(entry.getKey());
+            if (bean != null) {
+                ret.put(entry.getValue(), bean);
+            }
+        }
+        return ret;
+    }
+
+    private static Object[] getIdValues(Class<?> clazz, Object id, int idCount) throws SQLException {
+        Object[] ret = idCount == 1 ? new Object[]{id} : switch (id) {
+            case List<?> values -> values.toArray();
+            case Object[] values -> values;
+            case null, default -> null;
+        };
+        if (ret == null || ret.length != idCount) {
+            throw new SQLException(String.format("Ids of class %s must be lists of %d values", clazz.getSimpleName(), idCount));
+        }
+        for (var value : ret) {
+            if (value == null) {
+                throw new SQLException("Id list contains null values");
+            }
+        }
+        return ret;
+    }
+
+    // single column results, without boxing every value
+    public int[] getIntArray(Connection conn, String sql, Object... params) throws SQLException {
+        return query(conn, DEFAULT_FETCH_SIZE, sql, params, ColumnarReader::readIntArray);
+    }
+
+    public long[] getLongArray(Connection conn, String sql, Object... params) throws SQLException {
+        return query(conn, DEFAULT_FETCH_SIZE, sql, params, ColumnarReader::readLongArray);
+    }
+
+    public double[] getDoubleArray(Connection conn, String sql, Object... params) throws SQLException {
+        return query(conn, DEFAULT_FETCH_SIZE, sql, params, ColumnarReader::readDoubleArray);
+    }
+
+    public ColumnarResult getColumnarResult(Connection conn, String sql, Object... params) throws SQLException {
+        return getColumnarResult(conn, DEFAULT_FETCH_SIZE, sql, params);
+    }
+
+    // rows are stored column by column in primitive arrays and dictionary encoded strings, for analytical queries
+    public ColumnarResult getColumnarResult(Connection conn, int fetchSize, String sql, Object... params) throws SQLException {
+        return query(conn, fetchSize, sql, params, ColumnarReader::read);
+    }
+
+    public <T> RowBuffer<T> getRowBuffer(Connection conn, Class<T> clazz, String sql, Object... params) throws SQLException {
+        return getRowBuffer(conn, DEFAULT_FETCH_SIZE, clazz, sql, params);
+    }
+
+    // rows are encoded into compact byte pages, and beans are decoded on access, for large results kept in memory
+    public <T> RowBuffer<T> getRowBuffer(Connection conn, int fetchSize, Class<T> clazz, String sql, Object... params) throws SQLException {
+        return query(conn, fetchSize, sql, params, rs -> RowBuffer.read(clazz, rs));
+    }
+
+    // runs the query once per partition, in place of Partition.PLACEHOLDER, concurrently on virtual threads
+    public <T> List<T> getPartitionedResultList(DataSource dataSource, Class<T> clazz, String sql, List<Partition> partitions, boolean ordered, Object... params) throws SQLException {
+        return new PartitionedQuery<>(this, dataSource, clazz, sql, partitions, params).getResultList(DEFAULT_FETCH_SIZE, ordered);
+    }
+
+    // the stream must be closed when not consumed entirely, to cancel the partitions still running
+    public <T> Stream<T> getPartitionedResultStream(DataSource dataSource, Class<T> clazz, String sql, List<Partition> partitions, boolean ordered, Object... params) throws SQLException {
+        return getPartitionedResultStream(dataSource, DEFAULT_FETCH_SIZE, clazz, sql, partitions, ordered, params);
+    }
+
+    public <T> Stream<T> getPartitionedResultStream(DataSource dataSource, int fetchSize, Class<T> clazz, String sql, List<Partition> partitions, boolean ordered, Object... params) throws SQLException {
+        return new PartitionedQuery<>(this, dataSource, clazz, sql, partitions, params).getResultStream(fetchSize, ordered);
+    }
+
+    public long execute(String sql, Object... params) throws SQLException {
+        return withConnection(conn -> execute(conn, sql, params));
+    }
+
     public long execute(Connection conn, String sql, Object... params) throws SQLException {
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ParameterMetaData parameterMetaData = stmt.getParameterMetaData();
-            StatementUtils.checkStatementParameters(parameterMetaData, params);
-            StatementUtils.setStatementParameters(stmt, parameterMetaData, params);
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            cs.checkParameters(params);
+            bindParameters(cs, params);
             return stmt.executeLargeUpdate();
         }
     }
 
+    public void insert(Object object) throws SQLException {
+        withConnection(conn -> {
+            insert(conn, object);
+            return null;
+        });
+    }
+
     public void insert(Connection conn, Object object) throws SQLException {
         if (object == null) {
             throw new SQLException("Bean object is null");
         }
-        BeanProcessor<?> bp = new BeanProcessor<>(object.getClass(), null);
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(object.getClass());
         String sql = bp.generateInsertStatement();
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ParameterMetaData parameterMetaData = stmt.getParameterMetaData();
-            bp.setInsertParameters(stmt, parameterMetaData, object);
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            bp.bindInsertParameters(stmt, 0, object);
             stmt.executeUpdate();
+        } finally {
+            // a missing entity may have been cached
+            invalidate(object);
         }
     }
 
+    public void batchInsert(List<?> objects) throws SQLException {
+        withConnection(conn -> {
+            batchInsert(conn, objects);
+            return null;
+        });
+    }
+
     public void batchInsert(Connection conn, List<?> objects) throws SQLException {
-        if (objects == null || objects.isEmpty()) {
+        checkBeanList(objects);
+        executeBatchInsert(conn, objects.iterator());
+    }
+
+    // beans of other iterables than collections are validated while iterating, after earlier chunks were executed
+    public long batchInsert(Connection conn, Iterable<?> objects) throws SQLException {
+        if (objects == null) {
             throw new SQLException("Bean list is empty");
         }
-        for (var obj : objects) {
-            if (obj == null) {
-                throw new SQLException("Bean list contains null objects");
+        if (objects instanceof Collection<?> collection && !collection.isEmpty()) {
+            checkBeanList(collection);
+        }
+        return executeBatchInsert(conn, objects.iterator());
+    }
+
+    private long executeBatchInsert(Connection conn, Iterator<?> it) throws SQLException {
+        if (!it.hasNext()) {
+            return 0;
+        }
+        Object first = nextBean(it, null);
+        try {
+            return executeBatchInsert(conn, it, first);
+        } finally {
+            // beans are not retained while streaming, so the whole region is evicted
+            if (entityCache != null) {
+                entityCache.evict(first.getClass());
             }
-            if (!obj.getClass().equals(objects.getFirst().getClass())) {
-                throw new SQLException("Bean list must contain objects of the same type");
+            invalidateQueries(first.getClass());
+        }
+    }
+
+    private long executeBatchInsert(Connection conn, Iterator<?> it, Object first) throws SQLException {
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(first.getClass());
+        int columnCount = bp.getInsertParameterCount();
+        // rows bound by each statement execution, grouped in a multi-row VALUES clause when enabled
+        int groupRows = batchConfig.isMultiRowInsert() ? Math.max(1, batchConfig.getMaxParameters() / columnCount) : 1;
+        BatchChunker chunker = new BatchChunker(batchConfig);
+        // beans are bound once a group is complete, since the last group may need a statement of its own
+        Object[] group = new Object[groupRows];
+        int rows = 0;
+        long count = 0;
+        // prepared with the first full group, so that batches smaller than a group prepare the last statement only
+        CachedStatement groupStatement = null;
+        try {
+            Object obj = first;
+            while (obj != null) {
+                group[rows++] = obj;
+                count++;
+                obj = it.hasNext() ? nextBean(it, first.getClass()) : null;
+                if (rows == groupRows) {
+                    if (groupStatement == null) {
+                        groupStatement = prepareStatement(conn, bp.generateInsertStatement(groupRows));
+                    }
+                    PreparedStatement stmt = groupStatement.getStatement();
+                    long bytes = 0;
+                    for (int i = 0; i < rows; i++) {
+                        bp.bindInsertParameters(stmt, i * columnCount, group[i]);
+                        if (chunker.isSizeBounded()) {
+                            bytes += StatementUtils.estimateSize(bp.getInsertParameters(group[i]));
+                        }
+                    }
+                    stmt.addBatch();
+                    rows = 0;
+                    if (chunker.add(groupRows, bytes)) {
+                        chunker.executeBatch(stmt);
+                    }
+                }
+            }
+            if (chunker.hasPending()) {
+                chunker.executeBatch(groupStatement.getStatement());
+            }
+        } finally {
+            if (groupStatement != null) {
+                groupStatement.close();
             }
         }
-        BeanProcessor<?> bp = new BeanProcessor<>(objects.getFirst().getClass(), null);
-        String sql = bp.generateInsertStatement();
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ParameterMetaData pmd = stmt.getParameterMetaData();
-            for (var obj : objects) {
-                bp.setInsertParameters(stmt, pmd, obj);
-                stmt.addBatch();
+        // rows of the last partial group, with an uncached statement since its size varies
+        if (rows > 0) {
+            try (CachedStatement cs = CachedStatement.prepare(conn, bp.generateInsertStatement(rows))) {
+                PreparedStatement stmt = cs.getStatement();
+                for (int i = 0; i < rows; i++) {
+                    bp.bindInsertParameters(stmt, i * columnCount, group[i]);
+                }
+                stmt.executeUpdate();
             }
-            stmt.executeBatch();
         }
+        return count;
+    }
+
+    private static Object nextBean(Iterator<?> it, Class<?> clazz) throws SQLException {
+        Object ret = it.next();
+        if (ret == null) {
+            throw new SQLException("Bean list contains null objects");
+        }
+        if (clazz != null && !ret.getClass().equals(clazz)) {
+            throw new SQLException("Bean list must contain objects of the same type");
+        }
+        return ret;
+    }
+
+    public void update(Object object) throws SQLException {
+        withConnection(conn -> {
+            update(conn, object);
+            return null;
+        });
     }
 
     public void update(Connection conn, Object object) throws SQLException {
         if (object == null) {
             throw new SQLException("Bean object is null");
         }
-        BeanProcessor<?> bp = new BeanProcessor<>(object.getClass(), null);
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(object.getClass());
         String sql = bp.generateUpdateStatement();
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ParameterMetaData pmd = stmt.getParameterMetaData();
-            bp.setUpdateParameters(stmt, pmd, object);
+        Snapshot snapshot = snapshots.get(object);
+        if (dirtyChecking || snapshot != null) {
+            updateChanged(conn, bp, object, snapshot);
+            return;
+        }
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            bp.bindUpdateParameters(stmt, object);
+            stmt.executeUpdate();
+        } finally {
+            invalidate(object);
+        }
+    }
+
+    // writes the columns changed since the snapshot of the bean, if any, or the loaded ones without dirty checking
+    private void updateChanged(Connection conn, BeanProcessor<?> bp, Object object, Snapshot snapshot) throws SQLException {
+        Object[] values = bp.getInsertParameters(object);
+        BitSet columns = getChangedColumns(bp, snapshot, values);
+        if (columns.isEmpty()) {
+            return;
+        }
+        try (CachedStatement cs = prepareStatement(conn, bp.generateUpdateStatement(columns))) {
+            bp.bindUpdateParameters(cs.getStatement(), values, columns);
+            cs.getStatement().executeUpdate();
+            if (dirtyChecking) {
+                snapshots.put(object, values, snapshot == null ? null : snapshot.loadedColumns());
+            }
+        } finally {
+            invalidate(object);
+        }
+    }
+
+    public int[] batchUpdate(List<?> objects) throws SQLException {
+        return withConnection(conn -> batchUpdate(conn, objects));
+    }
+
+    // update counts in list order, or Statement.SUCCESS_NO_INFO depending on the driver
+    public int[] batchUpdate(Connection conn, List<?> objects) throws SQLException {
+        checkBeanList(objects);
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(objects.getFirst().getClass());
+        List<Snapshot> objectSnapshots = new ArrayList<>(objects.size());
+        boolean tracked = false;
+        for (var obj : objects) {
+            Snapshot snapshot = snapshots.get(obj);
+            objectSnapshots.add(snapshot);
+            tracked |= snapshot != null;
+        }
+        if (dirtyChecking || tracked) {
+            return batchUpdateChanged(conn, bp, objects, objectSnapshots);
+        }
+        try {
+            return executeBatch(conn, bp.generateUpdateStatement(), objects, (cs, obj) -> bp.bindUpdateParameters(cs.getStatement(), obj), bp::getUpdateParameters);
+        } finally {
+            invalidateAll(objects);
+        }
+    }
+
+    // beans are grouped by the set of columns they changed, and each group is executed with its own statement
+    private int[] batchUpdateChanged(Connection conn, BeanProcessor<?> bp, List<?> objects, List<Snapshot> objectSnapshots) throws SQLException {
+        int[] ret = new int[objects.size()];
+        Arrays.fill(ret, Statement.SUCCESS_NO_INFO);
+        Object[][] values = new Object[objects.size()][];
+        Map<BitSet, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < objects.size(); i++) {
+            values[i] = bp.getInsertParameters(objects.get(i));
+            BitSet columns = getChangedColumns(bp, objectSnapshots.get(i), values[i]);
+            if (!columns.isEmpty()) {
+                groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (groups.isEmpty()) {
+            return ret;
+        }
+
+        try {
+            for (var group : groups.entrySet()) {
+                BitSet columns = group.getKey();
+                List<Object[]> rows = group.getValue().stream().map(i -> values[i]).toList();
+                int[] counts = executeBatch(conn, bp.generateUpdateStatement(columns), rows, (cs, obj) -> bp.bindUpdateParameters(cs.getStatement(), (Object[]) obj, columns),
+                        obj -> bp.getUpdateParameters((Object[]) obj, columns));
+                for (int j = 0; j < counts.length; j++) {
+                    int index = group.getValue().get(j);
+                    ret[index] = counts[j];
+                    if (dirtyChecking) {
+                        Snapshot snapshot = objectSnapshots.get(index);
+                        snapshots.put(objects.get(index), values[index], snapshot == null ? null : snapshot.loadedColumns());
+                    }
+                }
+            }
+        } finally {
+            invalidateAll(objects);
+        }
+        return ret;
+    }
+
+    // columns not loaded, such as lazy ones, are never written by updates
+    private BitSet getChangedColumns(BeanProcessor<?> bp, Snapshot snapshot, Object[] values) {
+        BitSet loadedColumns = snapshot == null ? null : snapshot.loadedColumns();
+        return dirtyChecking ? bp.getDirtyColumns(snapshot == null ? null : snapshot.values(), values, loadedColumns) : bp.getDataColumns(loadedColumns);
+    }
+
+    public void upsert(Object object) throws SQLException {
+        withConnection(conn -> {
+            upsert(conn, object);
+            return null;
+        });
+    }
+
+    // inserts the bean, or updates it when a row with the same ids exists, with the statement of the dialect
+    public void upsert(Connection conn, Object object) throws SQLException {
+        if (object == null) {
+            throw new SQLException("Bean object is null");
+        }
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(object.getClass());
+        String sql = bp.generateUpsertStatement(dialect);
+        checkFullyLoaded(object);
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            bp.bindInsertParameters(stmt, 0, object);
             stmt.executeUpdate();
+        } finally {
+            invalidate(object);
+        }
+    }
+
+    public int[] batchUpsert(List<?> objects) throws SQLException {
+        return withConnection(conn -> batchUpsert(conn, objects));
+    }
+
+    // same as batchUpdate, returning the upsert count of every bean, whose meaning depends on the database
+    public int[] batchUpsert(Connection conn, List<?> objects) throws SQLException {
+        checkBeanList(objects);
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(objects.getFirst().getClass());
+        for (var obj : objects) {
+            checkFullyLoaded(obj);
+        }
+        try {
+            return executeBatch(conn, bp.generateUpsertStatement(dialect), objects, (cs, obj) -> bp.bindInsertParameters(cs.getStatement(), 0, obj), bp::getInsertParameters);
+        } finally {
+            invalidateAll(objects);
+        }
+    }
+
+    public int delete(Object object) throws SQLException {
+        return withConnection(conn -> delete(conn, object));
+    }
+
+    public int delete(Connection conn, Object object) throws SQLException {
+        if (object == null) {
+            throw new SQLException("Bean object is null");
         }
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(object.getClass());
+        String sql = bp.generateDeleteStatement();
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            bp.bindIdParameters(stmt, object);
+            return stmt.executeUpdate();
+        } finally {
+            invalidate(object);
+            snapshots.remove(object);
+        }
+    }
+
+    public int[] batchDelete(List<?> objects) throws SQLException {
+        return withConnection(conn -> batchDelete(conn, objects));
+    }
+
+    // same as batchUpdate, returning the delete count of every bean
+    public int[] batchDelete(Connection conn, List<?> objects) throws SQLException {
+        checkBeanList(objects);
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(objects.getFirst().getClass());
+        try {
+            return executeBatch(conn, bp.generateDeleteStatement(), objects, (cs, obj) -> bp.bindIdParameters(cs.getStatement(), obj), bp::getIdParameters);
+        } finally {
+            invalidateAll(objects);
+            for (var obj : objects) {
+                snapshots.remove(obj);
+            }
+        }
+    }
+
+    public int deleteById(Class<?> clazz, Object... ids) throws SQLException {
+        return withConnection(conn -> deleteById(conn, clazz, ids));
+    }
+
+    // ids are given in the declaration order of the @Id fields
+    public int deleteById(Connection conn, Class<?> clazz, Object... ids) throws SQLException {
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(clazz);
+        String sql = bp.generateDeleteStatement();
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            cs.checkParameters(ids);
+            bindParameters(cs, ids);
+            return stmt.executeUpdate();
+        } finally {
+            if (entityCache != null) {
+                entityCache.invalidate(clazz, ids);
+            }
+            invalidateQueries(clazz);
+        }
+    }
+
+    private int[] executeBatch(Connection conn, String sql, List<?> objects, BeanBinder binder, Function<Object, Object[]> parameters) throws SQLException {
+        int[] ret = new int[objects.size()];
+        int executed = 0;
+        BatchChunker chunker = new BatchChunker(batchConfig);
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            for (var obj : objects) {
+                binder.bind(cs, obj);
+                stmt.addBatch();
+                if (chunker.add(1, chunker.isSizeBounded() ? StatementUtils.estimateSize(parameters.apply(obj)) : 0)) {
+                    executed = copyCounts(chunker.executeBatch(stmt), ret, executed);
+                }
+            }
+            if (chunker.hasPending()) {
+                copyCounts(chunker.executeBatch(stmt), ret, executed);
+            }
+        }
+        return ret;
+    }
+
+    private void invalidate(Object object) {
+        if (entityCache != null) {
+            entityCache.invalidate(object);
+        }
+        invalidateQueries(object.getClass());
+    }
+
+    // chunks executed before a failure may have changed rows, so all beans are invalidated
+    private void invalidateAll(List<?> objects) {
+        if (entityCache != null) {
+            for (var obj : objects) {
+                entityCache.invalidate(obj);
+            }
+        }
+        invalidateQueries(objects.getFirst().getClass());
+    }
+
+    private void invalidateQueries(Class<?> clazz) {
+        if (queryCache != null) {
+            queryCache.invalidate(clazz.getAnnotation(Table.class).name());
+        }
+    }
+
+    private static int copyCounts(int[] counts, int[] ret, int offset) {
+        System.arraycopy(counts, 0, ret, offset, counts.length);
+        return offset + counts.length;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    // connections with cached statements
+    int getStatementCacheCount() {
+        return statementCaches.size();
+    }
+
+    // closes the statements cached for the connection, to be called before closing it or returning it to a pool
+    public void closeStatements(Connection conn) throws SQLException {
+        StatementCache cache = statementCaches.remove(conn);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    // the statements cached for the connection are closed before returning it
+    private <R> R withConnection(ConnectionCallback<R> callback) throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("No data source configured");
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            try {
+                return callback.execute(conn);
+            } finally {
+                closeStatements(conn);
+            }
+        }
+    }
+
+    private <R> R query(Connection conn, int fetchSize, String sql, Object[] params, ResultSetReader<R> reader) throws SQLException {
+        try (CachedStatement cs = prepareStatement(conn, sql)) {
+            PreparedStatement stmt = cs.getStatement();
+            stmt.setFetchSize(fetchSize);
+            cs.checkParameters(params);
+            bindParameters(cs, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return reader.read(rs);
+            }
+        }
+    }
+
+    private <T> RowProcessor<T> createRowProcessor(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        RowProcessor<T> rowProcessor = RowProcessorFactory.create(clazz, resultSetMetaData, generatedMappers);
+        if (!clazz.isAnnotationPresent(Table.class)) {
+            return rowProcessor;
+        }
+        // partially read beans are tracked even without dirty checking, so that updates skip the missing columns
+        BeanProcessor<T> bp = BeanProcessorCache.getWriteProcessor(clazz);
+        BitSet loadedColumns = bp.getSelectedColumns(resultSetMetaData);
+        if (!dirtyChecking && loadedColumns == null) {
+            return rowProcessor;
+        }
+        return new RowProcessor<>() {
+
+            @Override
+            public T process(ResultSet rs) throws SQLException {
+                return track(bp, rowProcessor.process(rs), loadedColumns);
+            }
+
+            @Override
+            public T process(ResultSet rs, T instance) throws SQLException {
+                return track(bp, rowProcessor.process(rs, instance), loadedColumns);
+            }
+
+        };
+    }
+
+    // collected rows outlive their cursor position, so streams can only be read row by row with forEach or an iterator
+    private static void checkNoStreams(Class<?> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        if (RowProcessorFactory.readsStreams(clazz, resultSetMetaData)) {
+            throw new SQLException(String.format("Class %s is read with InputStream or Reader values, which are only valid in forEach and result iterators", clazz.getSimpleName()));
+        }
+    }
+
+    // the column values are only kept for dirty checking
+    private <T> T track(BeanProcessor<?> bp, T bean, BitSet loadedColumns) {
+        if (bean != null) {
+            snapshots.put(bean, dirtyChecking ? bp.getInsertParameters(bean) : null, loadedColumns);
+        }
+        return bean;
+    }
+
+    // full writes would overwrite the columns the bean was not read with
+    private void checkFullyLoaded(Object object) throws SQLException {
+        Snapshot snapshot = snapshots.get(object);
+        if (snapshot != null && snapshot.loadedColumns() != null) {
+            throw new SQLException(String.format("Bean of class %s was read with a subset of its columns and cannot be upserted", object.getClass().getSimpleName()));
+        }
+    }
+
+    private void bindParameters(CachedStatement cs, Object... params) throws SQLException {
+        if (metadataParameterTypes) {
+            StatementUtils.setStatementParameters(cs.getStatement(), cs.getParameterTypes(), params);
+        } else {
+            // uncached statements only read their metadata to type null values
+            int[] parameterTypes = cs.getKnownParameterTypes();
+            if (parameterTypes == null && Arrays.asList(params).contains(null)) {
+                parameterTypes = cs.getNullParameterTypes();
+            }
+            StatementUtils.bindStatementParameters(cs.getStatement(), parameterTypes, params);
+        }
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof Path path) {
+                cs.bindFile(i + 1, path);
+            }
+        }
+    }
+
+    private CachedStatement prepareStatement(Connection conn, String sql) throws SQLException {
+        if (statementCacheSize <= 0) {
+            return CachedStatement.prepare(conn, sql);
+        }
+        StatementCache cache = statementCaches.get(conn);
+        if (cache == null) {
+            closeStaleStatements();
+            cache = statementCaches.computeIfAbsent(conn, k -> new StatementCache(k, statementCacheSize, statementCacheHits, statementCacheMisses));
+        }
+        return cache.prepare(sql);
+    }
+
+    // drops the caches of connections closed without closeStatements, pooled ones included once returned
+    private void closeStaleStatements() {
+        for (var it = statementCaches.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Connection, StatementCache> entry = it.next();
+            if (isClosed(entry.getKey())) {
+                it.remove();
+                try {
+                    entry.getValue().close();
+                } catch (SQLException ex) {
+                    LOGGER.log(System.Logger.Level.DEBUG, "Failed to close statements of a closed connection", ex);
+                }
+            }
+        }
+    }
+
+    private static boolean isClosed(Connection conn) {
+        try {
+            return conn.isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+
+    private static void checkBeanList(Collection<?> objects) throws SQLException {
+        if (objects == null || objects.isEmpty()) {
+            throw new SQLException("Bean list is empty");
+        }
+        Class<?> clazz = null;
+        for (var obj : objects) {
+            if (obj == null) {
+                throw new SQLException("Bean list contains null objects");
+            }
+            if (clazz == null) {
+                clazz = obj.getClass();
+            } else if (!obj.getClass().equals(clazz)) {
+                throw new SQLException("Bean list must contain objects of the same type");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSetReader<R> {
+
+        R read(ResultSet rs) throws SQLException;
+
+    }
+
+    @FunctionalInterface
+    private interface BeanBinder {
+
+        void bind(CachedStatement cs, Object obj) throws SQLException;
+
     }
 
 }
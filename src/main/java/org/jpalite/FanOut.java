@@ -0,0 +1,94 @@
+package org.jpalite;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Forks concurrent operations and joins them; the first failure cancels the others and is thrown by join
+public class FanOut implements AutoCloseable {
+
+    private final AsyncEntityManager asyncEntityManager;
+    private final List<CompletableFuture<?>> tasks = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    FanOut(AsyncEntityManager asyncEntityManager) {
+        this.asyncEntityManager = asyncEntityManager;
+    }
+
+    // the result is available from the future once join returns
+    public synchronized <R> CompletableFuture<R> fork(ConnectionCallback<R> callback) {
+        CompletableFuture<R> ret = asyncEntityManager.submit(callback);
+        tasks.add(ret);
+        ret.whenComplete((result, ex) -> {
+            if (ex != null && !(ex instanceof CancellationException) && failure.compareAndSet(null, ex)) {
+                cancelAll();
+            }
+        });
+        return ret;
+    }
+
+    // waits for all the operations, the elapsed time being the one of the slowest operation
+    public void join() throws SQLException {
+        CompletableFuture<Void> all;
+        synchronized (this) {
+            all = CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new));
+        }
+        Throwable cancellation = null;
+        try {
+            all.get();
+        } catch (InterruptedException ex) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for operations", ex);
+        } catch (ExecutionException | CancellationException ex) {
+            cancellation = ex;
+        }
+        // every operation is done, but the callbacks recording the failure may not have run yet
+        Throwable t = failure.get() != null ? failure.get() : findFailure();
+        if (t == null) {
+            if (cancellation != null) {
+                throw new SQLException("Operation cancelled", cancellation);
+            }
+            return;
+        }
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof SQLException ex) {
+            throw ex;
+        }
+        if (t instanceof RuntimeException ex) {
+            throw ex;
+        }
+        if (t instanceof Error ex) {
+            throw ex;
+        }
+        throw new SQLException("Operation failed", t);
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private synchronized Throwable findFailure() {
+        for (var task : tasks) {
+            if (task.isCompletedExceptionally() && !task.isCancelled()) {
+                return task.exceptionNow();
+            }
+        }
+        return null;
+    }
+
+    private synchronized void cancelAll() {
+        for (var task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.jpalite;
+
+import org.jpalite.common.CachedStatement;
+import org.jpalite.common.UncheckedSQLException;
+import org.jpalite.processor.row.RowProcessor;
+
+import java.lang.ref.Cleaner;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Reads rows on demand; the cursor is closed when exhausted or closed, or by a cleaner that logs the leak
+public class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final System.Logger LOGGER = System.getLogger(ResultIterator.class.getName());
+
+    private final ResultSet rs;
+    private final RowProcessor<T> rowProcessor;
+    private final Resources resources;
+    private final Cleaner.Cleanable cleanable;
+    private boolean hasNext;
+    private boolean advanced;
+
+    ResultIterator(CachedStatement stmt, ResultSet rs, RowProcessor<T> rowProcessor, String sql) {
+        this.rs = rs;
+        this.rowProcessor = rowProcessor;
+        this.resources = new Resources(stmt, rs, sql);
+        this.cleanable = CLEANER.register(this, resources);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!advanced) {
+            if (resources.closed) {
+                return false;
+            }
+            try {
+                hasNext = rs.next();
+            } catch (SQLException ex) {
+                close();
+                throw new UncheckedSQLException(ex);
+            }
+            advanced = true;
+            if (!hasNext) {
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        try {
+            return rowProcessor.process(rs);
+        } catch (SQLException ex) {
+            close();
+            throw new UncheckedSQLException(ex);
+        } catch (RuntimeException ex) {
+            // failing constructors or setters leave the cursor unusable
+            close();
+            throw ex;
+        }
+    }
+
+    public boolean isClosed() {
+        return resources.closed;
+    }
+
+    @Override
+    public void close() {
+        resources.explicit = true;
+        cleanable.clean();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false).onClose(this::close);
+    }
+
+    // must not reference the iterator, or it would never become phantom reachable
+    private static class Resources implements Runnable {
+
+        private final CachedStatement stmt;
+        private final ResultSet rs;
+        private final String sql;
+        private volatile boolean closed;
+        private volatile boolean explicit;
+
+        private Resources(CachedStatement stmt, ResultSet rs, String sql) {
+            this.stmt = stmt;
+            this.rs = rs;
+            this.sql = sql;
+        }
+
+        @Override
+        public void run() {
+            closed = true;
+            if (!explicit) {
+                LOGGER.log(System.Logger.Level.WARNING, "Result iterator was not closed, releasing its cursor: {0}", sql);
+            }
+            try (stmt; rs) {
+                // closes the result set first, then closes or releases the statement
+            } catch (SQLException ex) {
+                LOGGER.log(System.Logger.Level.WARNING, "Error closing result iterator", ex);
+            }
+        }
+
+    }
+
+}
@@ -11,4 +11,10 @@ public @interface Column {
 
     String name();
 
+    // when true, the field is read and written directly instead of through its accessor methods
+    boolean fieldAccess() default false;
+
+    // when true, the column is left out of the generated selects, and read by EntityManager.loadLazyColumns
+    boolean lazy() default false;
+
 }
@@ -0,0 +1,12 @@
+package org.jpalite.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// marks the constructor used to materialize rows, taking the @Column fields in declaration order
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.CONSTRUCTOR)
+public @interface EntityConstructor {
+}
@@ -0,0 +1,230 @@
+package org.jpalite.buffer;
+
+import org.jpalite.common.UncheckedSQLException;
+import org.jpalite.processor.row.BeanBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Rows encoded into byte[] pages as a null bitmap and fixed width slots, variable length values after them; beans are
+// decoded on every access
+public class RowBuffer<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int PAGE_SIZE = 1 << 16;
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle FLOAT = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final BeanBuilder<T> beanBuilder;
+    private final ColumnType[] columnTypes;
+    // offset of the slot of each column within the row, after the null bitmap
+    private final int[] slotOffsets;
+    private final byte[][] pages;
+    // page index in the high 32 bits, offset of the row within the page in the low 32 bits
+    private final long[] rowAddresses;
+
+    private RowBuffer(BeanBuilder<T> beanBuilder, ColumnType[] columnTypes, int[] slotOffsets, byte[][] pages, long[] rowAddresses) {
+        this.beanBuilder = beanBuilder;
+        this.columnTypes = columnTypes;
+        this.slotOffsets = slotOffsets;
+        this.pages = pages;
+        this.rowAddresses = rowAddresses;
+    }
+
+    public static <T> RowBuffer<T> read(Class<T> clazz, ResultSet rs) throws SQLException {
+        ResultSetMetaData resultSetMetaData = rs.getMetaData();
+        int columnCount = resultSetMetaData.getColumnCount();
+        List<String> columnLabels = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnLabels.add(resultSetMetaData.getColumnLabel(i + 1));
+        }
+        BeanBuilder<T> beanBuilder = BeanBuilder.create(clazz, columnLabels);
+
+        Class<?>[] fieldTypes = beanBuilder.getColumnTypes();
+        ColumnType[] columnTypes = new ColumnType[columnCount];
+        int[] slotOffsets = new int[columnCount];
+        int bitmapSize = (columnCount + 7) >>> 3;
+        int fixedSize = bitmapSize;
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = ColumnType.of(fieldTypes[i], columnLabels.get(i));
+            slotOffsets[i] = fixedSize;
+            fixedSize += columnTypes[i].width;
+        }
+
+        List<byte[]> pages = new ArrayList<>();
+        byte[] page = null;
+        int pageOffset = 0;
+        long[] rowAddresses = new long[1_024];
+        int rowCount = 0;
+        byte[] row = new byte[Math.max(fixedSize, 256)];
+        while (rs.next()) {
+            Arrays.fill(row, 0, bitmapSize, (byte) 0);
+            int rowSize = fixedSize;
+            for (int i = 0; i < columnCount; i++) {
+                int slot = slotOffsets[i];
+                byte[] value = null;
+                switch (columnTypes[i]) {
+                    case SHORT -> SHORT.set(row, slot, rs.getShort(i + 1));
+                    case INT -> INT.set(row, slot, rs.getInt(i + 1));
+                    case LONG -> LONG.set(row, slot, rs.getLong(i + 1));
+                    case FLOAT -> FLOAT.set(row, slot, rs.getFloat(i + 1));
+                    case DOUBLE -> DOUBLE.set(row, slot, rs.getDouble(i + 1));
+                    case DATE -> {
+                        Timestamp timestamp = rs.getTimestamp(i + 1);
+                        LONG.set(row, slot, timestamp == null ? 0L : timestamp.getTime());
+                    }
+                    case STRING -> {
+                        String string = rs.getString(i + 1);
+                        value = string == null ? null : string.getBytes(StandardCharsets.UTF_8);
+                    }
+                    case DECIMAL -> {
+                        BigDecimal decimal = rs.getBigDecimal(i + 1);
+                        value = decimal == null ? null : encodeDecimal(decimal);
+                    }
+                }
+                if (rs.wasNull()) {
+                    // fails here rather than on access, when the result set is still at hand
+                    if (fieldTypes[i].isPrimitive()) {
+                        throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnLabels.get(i)));
+                    }
+                    row[i >>> 3] |= (byte) (1 << (i & 7));
+                } else if (value != null) {
+                    if (rowSize + 4 + value.length > row.length) {
+                        row = Arrays.copyOf(row, Math.max(row.length * 2, rowSize + 4 + value.length));
+                    }
+                    INT.set(row, slot, rowSize);
+                    INT.set(row, rowSize, value.length);
+                    System.arraycopy(value, 0, row, rowSize + 4, value.length);
+                    rowSize += 4 + value.length;
+                }
+            }
+
+            if (page == null || pageOffset + rowSize > page.length) {
+                // trims the full page, its tail is too small for the row
+                if (page != null && pageOffset < page.length) {
+                    pages.set(pages.size() - 1, Arrays.copyOf(page, pageOffset));
+                }
+                page = new byte[Math.max(PAGE_SIZE, rowSize)];
+                pageOffset = 0;
+                pages.add(page);
+            }
+            System.arraycopy(row, 0, page, pageOffset, rowSize);
+            if (rowCount == rowAddresses.length) {
+                rowAddresses = Arrays.copyOf(rowAddresses, rowCount + (rowCount >> 1));
+            }
+            rowAddresses[rowCount++] = ((long) (pages.size() - 1) << 32) | pageOffset;
+            pageOffset += rowSize;
+        }
+        if (page != null && pageOffset < page.length) {
+            pages.set(pages.size() - 1, Arrays.copyOf(page, pageOffset));
+        }
+        return new RowBuffer<>(beanBuilder, columnTypes, slotOffsets, pages.toArray(byte[][]::new), Arrays.copyOf(rowAddresses, rowCount));
+    }
+
+    @Override
+    public T get(int index) {
+        long rowAddress = rowAddresses[Objects.checkIndex(index, rowAddresses.length)];
+        byte[] page = pages[(int) (rowAddress >>> 32)];
+        int row = (int) rowAddress;
+        Object[] values = new Object[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            if ((page[row + (i >>> 3)] & (1 << (i & 7))) != 0) {
+                continue;
+            }
+            int slot = row + slotOffsets[i];
+            values[i] = switch (columnTypes[i]) {
+                case SHORT -> (short) SHORT.get(page, slot);
+                case INT -> (int) INT.get(page, slot);
+                case LONG -> (long) LONG.get(page, slot);
+                case FLOAT -> (float) FLOAT.get(page, slot);
+                case DOUBLE -> (double) DOUBLE.get(page, slot);
+                case DATE -> new Date((long) LONG.get(page, slot));
+                case STRING -> {
+                    int offset = row + (int) INT.get(page, slot);
+                    yield new String(page, offset + 4, (int) INT.get(page, offset), StandardCharsets.UTF_8);
+                }
+                case DECIMAL -> {
+                    int offset = row + (int) INT.get(page, slot);
+                    yield decodeDecimal(page, offset + 4, (int) INT.get(page, offset));
+                }
+            };
+        }
+        try {
+            return beanBuilder.build(values);
+        } catch (SQLException ex) {
+            throw new UncheckedSQLException(ex);
+        }
+    }
+
+    @Override
+    public int size() {
+        return rowAddresses.length;
+    }
+
+    // bytes held by pages and row addresses
+    public long getBufferSize() {
+        long ret = (long) rowAddresses.length * Long.BYTES;
+        for (var page : pages) {
+            ret += page.length;
+        }
+        return ret;
+    }
+
+    // scale followed by the two's complement bytes of the unscaled value
+    private static byte[] encodeDecimal(BigDecimal value) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        byte[] ret = new byte[4 + unscaled.length];
+        INT.set(ret, 0, value.scale());
+        System.arraycopy(unscaled, 0, ret, 4, unscaled.length);
+        return ret;
+    }
+
+    private static BigDecimal decodeDecimal(byte[] page, int offset, int length) {
+        return new BigDecimal(new BigInteger(page, offset + 4, length - 4), (int) INT.get(page, offset));
+    }
+
+    private enum ColumnType {
+
+        SHORT(2), INT(4), LONG(8), FLOAT(4), DOUBLE(8), DATE(8), STRING(4), DECIMAL(4);
+
+        // bytes of the slot, variable length types hold the offset of their value
+        private final int width;
+
+        ColumnType(int width) {
+            this.width = width;
+        }
+
+        private static ColumnType of(Class<?> fieldType, String columnLabel) throws SQLException {
+            return switch (fieldType.getName()) {
+                case "short", "java.lang.Short" -> SHORT;
+                case "int", "java.lang.Integer" -> INT;
+                case "long", "java.lang.Long" -> LONG;
+                case "float", "java.lang.Float" -> FLOAT;
+                case "double", "java.lang.Double" -> DOUBLE;
+                case "java.util.Date" -> DATE;
+                case "java.lang.String" -> STRING;
+                case "java.math.BigDecimal" -> DECIMAL;
+                default -> throw new SQLException(String.format("Unsupported type %s of column %s in row buffer", fieldType.getSimpleName(), columnLabel));
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.jpalite.cache;
+
+import org.jpalite.common.IdKeys;
+import org.jpalite.common.Values;
+import org.jpalite.dto.EntityCacheConfig;
+import org.jpalite.processor.row.BeanBuilder;
+import org.jpalite.processor.row.BeanProcessor;
+import org.jpalite.processor.row.BeanProcessorCache;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Entities by id, stored as column values and rebuilt on every hit. Entries are invalidated when writes execute, not
+// on commit, so concurrent transactions may cache rows they replace until the TTL expires
+public class EntityCache {
+
+    // cached result of ids found missing
+    private static final Object[] NOT_FOUND = new Object[0];
+
+    private final EntityCacheConfig config;
+    private final ConcurrentMap<Class<?>, Region> regions = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public EntityCache() {
+        this(new EntityCacheConfig());
+    }
+
+    public EntityCache(EntityCacheConfig config) {
+        this.config = config;
+    }
+
+    // reads through the cache, calling the loader on misses and caching its result
+    public <T> T get(Class<T> clazz, Object[] ids, Loader<T> loader) throws SQLException {
+        Region region = getRegion(clazz);
+        List<Object> key = IdKeys.of(ids);
+        Object[] values = region.get(key);
+        if (values != null) {
+            hitCount.increment();
+            return values == NOT_FOUND ? null : clazz.cast(region.build(values));
+        }
+        missCount.increment();
+        // entries invalidated while loading are not cached, since the loaded value may be stale already
+        long version = region.getVersion();
+        T ret = loader.load();
+        if (ret != null) {
+            region.put(key, Values.copy(region.writeProcessor.getInsertParameters(ret)), config.getTtlMillis(), version);
+        } else if (config.getNegativeTtlMillis() > 0) {
+            region.put(key, NOT_FOUND, config.getNegativeTtlMillis(), version);
+        }
+        return ret;
+    }
+
+    public void invalidate(Class<?> clazz, Object... ids) {
+        Region region = regions.get(clazz);
+        if (region != null) {
+            region.invalidate(IdKeys.of(ids));
+        }
+    }
+
+    public void invalidate(Object entity) {
+        Region region = regions.get(entity.getClass());
+        if (region != null) {
+            region.invalidate(IdKeys.of(region.writeProcessor.getIdParameters(entity)));
+        }
+    }
+
+    // to be called after changing the table with raw statements
+    public void evict(Class<?> clazz) {
+        Region region = regions.get(clazz);
+        if (region != null) {
+            region.clear();
+        }
+    }
+
+    public void evictAll() {
+        regions.values().forEach(Region::clear);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // entries evicted by size or expired
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int getSize() {
+        return regions.values().stream().mapToInt(Region::size).sum();
+    }
+
+    private Region getRegion(Class<?> clazz) throws SQLException {
+        Region ret = regions.get(clazz);
+        if (ret == null) {
+            BeanProcessor<?> writeProcessor = BeanProcessorCache.getWriteProcessor(clazz);
+            ret = new Region(writeProcessor, BeanBuilder.create(clazz, writeProcessor.getColumnLabels()));
+            Region existing = regions.putIfAbsent(clazz, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+
+        T load() throws SQLException;
+
+    }
+
+    private record Entry(Object[] values, long expiresAt) {
+    }
+
+    private class Region {
+
+        private final BeanProcessor<?> writeProcessor;
+        private final BeanBuilder<?> beanBuilder;
+        // access ordered, so that the eldest entry is the least recently used
+        private final LinkedHashMap<List<Object>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        // a lock rather than synchronized, which would pin virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private long version;
+
+        private Region(BeanProcessor<?> writeProcessor, BeanBuilder<?> beanBuilder) {
+            this.writeProcessor = writeProcessor;
+            this.beanBuilder = beanBuilder;
+        }
+
+        private Object[] get(List<Object> key) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAt() != 0 && System.nanoTime() - entry.expiresAt() > 0) {
+                    entries.remove(key);
+                    evictionCount.increment();
+                    return null;
+                }
+                return entry.values();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(List<Object> key, Object[] values, long ttlMillis, long expectedVersion) {
+            long expiresAt = ttlMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+            lock.lock();
+            try {
+                if (version != expectedVersion) {
+                    return;
+                }
+                entries.put(key, new Entry(values, expiresAt));
+                for (Iterator<Map.Entry<List<Object>, Entry>> it = entries.entrySet().iterator(); entries.size() > config.getMaxSize() && it.hasNext(); ) {
+                    it.next();
+                    it.remove();
+                    evictionCount.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object build(Object[] values) throws SQLException {
+            return beanBuilder.build(Values.copy(values));
+        }
+
+        private void invalidate(List<Object> key) {
+            lock.lock();
+            try {
+                version++;
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                version++;
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long getVersion() {
+            lock.lock();
+            try {
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,227 @@
+package org.jpalite.cache;
+
+import org.jpalite.dto.QueryCacheConfig;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Query results by class, SQL and parameters, loaded once by concurrent misses and dropped with any of their tables
+public class QueryCache {
+
+    private final QueryCacheConfig config;
+    // access ordered, so that the eldest entry is the least recently used
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // keys of the cached results depending on each table
+    private final Map<String, Set<Key>> tableKeys = new HashMap<>();
+    // a lock rather than synchronized, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public QueryCache() {
+        this(new QueryCacheConfig());
+    }
+
+    public QueryCache(QueryCacheConfig config) {
+        this.config = config;
+    }
+
+    // reads through the cache, calling the loader once for concurrent misses of the same query
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Class<T> clazz, Collection<String> tables, String sql, Object[] params, Loader<T> loader) throws SQLException {
+        Key key = new Key(clazz, sql, params.clone());
+        while (true) {
+            Entry entry;
+            boolean loading = false;
+            lock.lock();
+            try {
+                entry = entries.get(key);
+                if (entry != null && entry.expiresAt != 0 && System.nanoTime() - entry.expiresAt > 0) {
+                    remove(key);
+                    evictionCount.increment();
+                    entry = null;
+                }
+                if (entry == null) {
+                    entry = new Entry(normalizeTables(tables));
+                    put(key, entry);
+                    loading = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (loading) {
+                missCount.increment();
+                try {
+                    List<T> ret = Collections.unmodifiableList(loader.load());
+                    // the time to live starts once loaded, so that slow queries are not expired on arrival
+                    entry.expiresAt = config.getTtlMillis() > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getTtlMillis()) : 0;
+                    entry.result.complete(ret);
+                    return ret;
+                } catch (SQLException | RuntimeException | Error ex) {
+                    // failures are not cached, and waiting callers load the result themselves
+                    lock.lock();
+                    try {
+                        if (entries.get(key) == entry) {
+                            remove(key);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    entry.result.completeExceptionally(ex);
+                    throw ex;
+                }
+            }
+            try {
+                List<?> ret = entry.result.get();
+                hitCount.increment();
+                return (List<T>) ret;
+            } catch (ExecutionException ex) {
+                // the load failed on the connection of another caller, whose failure is not ours
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a cached query", ex);
+            }
+        }
+    }
+
+    // drops the results depending on the table, to be called after changing it with raw statements
+    public void invalidate(String table) {
+        lock.lock();
+        try {
+            Set<Key> keys = tableKeys.remove(table.toLowerCase(Locale.ROOT));
+            if (keys != null) {
+                for (var key : keys) {
+                    remove(key);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evictAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            tableKeys.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // results evicted by size or expired
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        entries.put(key, entry);
+        for (var table : entry.tables) {
+            tableKeys.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > config.getMaxSize() && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            removeTableKeys(eldest.getKey(), eldest.getValue());
+            evictionCount.increment();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            removeTableKeys(key, entry);
+        }
+    }
+
+    private void removeTableKeys(Key key, Entry entry) {
+        for (var table : entry.tables) {
+            Set<Key> keys = tableKeys.get(table);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    tableKeys.remove(table);
+                }
+            }
+        }
+    }
+
+    private static Set<String> normalizeTables(Collection<String> tables) {
+        Set<String> ret = new HashSet<>();
+        for (var table : tables) {
+            ret.add(table.toLowerCase(Locale.ROOT));
+        }
+        return ret;
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+
+        List<T> load() throws SQLException;
+
+    }
+
+    // array parameters are compared by content
+    private record Key(Class<?> clazz, String sql, Object[] params) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && clazz == key.clazz && sql.equals(key.sql) && Arrays.deepEquals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * clazz.hashCode() + sql.hashCode()) + Arrays.deepHashCode(params);
+        }
+
+    }
+
+    private static class Entry {
+
+        private final Set<String> tables;
+        // 0 while loading, or when results do not expire
+        private volatile long expiresAt;
+        private final CompletableFuture<List<?>> result = new CompletableFuture<>();
+
+        private Entry(Set<String> tables) {
+            this.tables = tables;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.jpalite.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+// A column of a columnar result; primitive vectors return 0 for nulls, which isNull tells apart
+public abstract class ColumnVector {
+
+    static final int INITIAL_CAPACITY = 1_024;
+
+    private final String label;
+    private BitSet nulls;
+    int size;
+
+    ColumnVector(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return nulls != null && nulls.get(row);
+    }
+
+    public boolean hasNulls() {
+        return nulls != null;
+    }
+
+    // boxed value, null for null values
+    public abstract Object getObject(int row);
+
+    // appends the value of the current row
+    abstract void read(ResultSet rs, int columnIndex) throws SQLException;
+
+    // releases the unused capacity once all rows are read
+    abstract void trim();
+
+    void setNull(int row) {
+        if (nulls == null) {
+            nulls = new BitSet();
+        }
+        nulls.set(row);
+    }
+
+    static int grow(int capacity) {
+        return capacity + (capacity >> 1) + 1;
+    }
+
+}
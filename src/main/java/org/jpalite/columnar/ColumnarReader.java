@@ -0,0 +1,91 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessorFactory;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Reads result sets into column vectors, choosing the vector of each column from its SQL type
+public class ColumnarReader {
+
+    private ColumnarReader() {
+    }
+
+    public static ColumnarResult read(ResultSet rs) throws SQLException {
+        ResultSetMetaData resultSetMetaData = rs.getMetaData();
+        List<ColumnVector> columns = new ArrayList<>(resultSetMetaData.getColumnCount());
+        for (int i = 0; i < resultSetMetaData.getColumnCount(); i++) {
+            columns.add(createVector(resultSetMetaData.getColumnLabel(i + 1), resultSetMetaData.getColumnType(i + 1)));
+        }
+        int rowCount = readRows(rs, columns.toArray(ColumnVector[]::new));
+        return new ColumnarResult(columns, rowCount);
+    }
+
+    public static int[] readIntArray(ResultSet rs) throws SQLException {
+        IntVector vector = new IntVector(getSingleColumnLabel(rs));
+        readRows(rs, vector);
+        checkNotNull(vector);
+        return vector.toArray();
+    }
+
+    public static long[] readLongArray(ResultSet rs) throws SQLException {
+        LongVector vector = new LongVector(getSingleColumnLabel(rs));
+        readRows(rs, vector);
+        checkNotNull(vector);
+        return vector.toArray();
+    }
+
+    public static double[] readDoubleArray(ResultSet rs) throws SQLException {
+        DoubleVector vector = new DoubleVector(getSingleColumnLabel(rs));
+        readRows(rs, vector);
+        checkNotNull(vector);
+        return vector.toArray();
+    }
+
+    private static int readRows(ResultSet rs, ColumnVector... columns) throws SQLException {
+        int rowCount = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(rs, i + 1);
+            }
+            rowCount++;
+        }
+        for (var column : columns) {
+            column.trim();
+        }
+        return rowCount;
+    }
+
+    private static ColumnVector createVector(String columnLabel, int sqlType) throws SQLException {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> new IntVector(columnLabel);
+            case Types.BIGINT -> new LongVector(columnLabel);
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> new DoubleVector(columnLabel);
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> new StringVector(columnLabel);
+            case Types.DECIMAL, Types.NUMERIC -> new ObjectVector(columnLabel, ColumnProcessorFactory.create(BigDecimal.class));
+            case Types.DATE, Types.TIMESTAMP -> new ObjectVector(columnLabel, ColumnProcessorFactory.create(Date.class));
+            default -> new ObjectVector(columnLabel, ColumnProcessorFactory.create(Object.class));
+        };
+    }
+
+    private static String getSingleColumnLabel(ResultSet rs) throws SQLException {
+        ResultSetMetaData resultSetMetaData = rs.getMetaData();
+        if (resultSetMetaData.getColumnCount() != 1) {
+            throw new SQLException(String.format("ResultSet has %d columns but 1 is expected", resultSetMetaData.getColumnCount()));
+        }
+        return resultSetMetaData.getColumnLabel(1);
+    }
+
+    private static void checkNotNull(ColumnVector vector) throws SQLException {
+        if (vector.hasNulls()) {
+            throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", vector.getLabel()));
+        }
+    }
+
+}
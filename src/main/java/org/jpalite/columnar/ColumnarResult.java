@@ -0,0 +1,49 @@
+package org.jpalite.columnar;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Query result stored column by column, without materializing an object per row
+public class ColumnarResult {
+
+    private final List<ColumnVector> columns;
+    private final Map<String, ColumnVector> columnsByLabel;
+    private final int rowCount;
+
+    ColumnarResult(List<ColumnVector> columns, int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.columnsByLabel = columns.stream().collect(Collectors.toMap(i -> i.getLabel().toLowerCase(Locale.ROOT), Function.identity(), (a, b) -> a));
+        this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public List<ColumnVector> getColumns() {
+        return columns;
+    }
+
+    // columnIndex starts from 1, as in ResultSet
+    public ColumnVector getColumn(int columnIndex) {
+        return columns.get(columnIndex - 1);
+    }
+
+    public ColumnVector getColumn(String columnLabel) throws SQLException {
+        ColumnVector ret = columnsByLabel.get(columnLabel.toLowerCase(Locale.ROOT));
+        if (ret == null) {
+            throw new SQLException(String.format("No column found with label %s", columnLabel));
+        }
+        return ret;
+    }
+
+}
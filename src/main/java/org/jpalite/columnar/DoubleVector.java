@@ -0,0 +1,53 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessorFactory;
+import org.jpalite.processor.column.DoubleColumnProcessor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class DoubleVector extends ColumnVector {
+
+    private final DoubleColumnProcessor columnProcessor;
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    DoubleVector(String label) throws SQLException {
+        super(label);
+        this.columnProcessor = (DoubleColumnProcessor) ColumnProcessorFactory.create(double.class);
+    }
+
+    public double get(int row) {
+        return values[Objects.checkIndex(row, size)];
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Double getObject(int row) {
+        return isNull(row) ? null : get(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex) throws SQLException {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(size));
+        }
+        values[size] = columnProcessor.processDouble(rs, columnIndex);
+        if (rs.wasNull()) {
+            setNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+}
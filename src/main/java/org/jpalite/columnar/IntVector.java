@@ -0,0 +1,53 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessorFactory;
+import org.jpalite.processor.column.IntColumnProcessor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class IntVector extends ColumnVector {
+
+    private final IntColumnProcessor columnProcessor;
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    IntVector(String label) throws SQLException {
+        super(label);
+        this.columnProcessor = (IntColumnProcessor) ColumnProcessorFactory.create(int.class);
+    }
+
+    public int get(int row) {
+        return values[Objects.checkIndex(row, size)];
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Integer getObject(int row) {
+        return isNull(row) ? null : get(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex) throws SQLException {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(size));
+        }
+        values[size] = columnProcessor.processInt(rs, columnIndex);
+        if (rs.wasNull()) {
+            setNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessorFactory;
+import org.jpalite.processor.column.LongColumnProcessor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class LongVector extends ColumnVector {
+
+    private final LongColumnProcessor columnProcessor;
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    LongVector(String label) throws SQLException {
+        super(label);
+        this.columnProcessor = (LongColumnProcessor) ColumnProcessorFactory.create(long.class);
+    }
+
+    public long get(int row) {
+        return values[Objects.checkIndex(row, size)];
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Long getObject(int row) {
+        return isNull(row) ? null : get(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex) throws SQLException {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(size));
+        }
+        values[size] = columnProcessor.processLong(rs, columnIndex);
+        if (rs.wasNull()) {
+            setNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+// columns without a primitive or dictionary representation, such as decimals and timestamps
+public class ObjectVector extends ColumnVector {
+
+    private final ColumnProcessor<?> columnProcessor;
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    ObjectVector(String label, ColumnProcessor<?> columnProcessor) {
+        super(label);
+        this.columnProcessor = columnProcessor;
+    }
+
+    public Object get(int row) {
+        return values[Objects.checkIndex(row, size)];
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return get(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex) throws SQLException {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(size));
+        }
+        values[size] = columnProcessor.process(rs, columnIndex);
+        if (values[size] == null) {
+            setNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.jpalite.columnar;
+
+import org.jpalite.processor.column.ColumnProcessor;
+import org.jpalite.processor.column.ColumnProcessorFactory;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Dictionary encoded strings: each distinct value is stored once, and rows hold its code in the dictionary
+public class StringVector extends ColumnVector {
+
+    private static final int NULL_CODE = -1;
+
+    private final ColumnProcessor<?> columnProcessor;
+    private final List<String> dictionary = new ArrayList<>();
+    // only needed while reading, released by trim
+    private Map<String, Integer> codesByValue = new HashMap<>();
+    private int[] codes = new int[INITIAL_CAPACITY];
+
+    StringVector(String label) throws SQLException {
+        super(label);
+        this.columnProcessor = ColumnProcessorFactory.create(String.class);
+    }
+
+    public String get(int row) {
+        int code = getCode(row);
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    // index of the value in the dictionary, -1 for null values
+    public int getCode(int row) {
+        return codes[Objects.checkIndex(row, size)];
+    }
+
+    public List<String> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    @Override
+    public String getObject(int row) {
+        return get(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex) throws SQLException {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, grow(size));
+        }
+        String value = (String) columnProcessor.process(rs, columnIndex);
+        if (value == null) {
+            codes[size] = NULL_CODE;
+            setNull(size);
+        } else {
+            codes[size] = codesByValue.computeIfAbsent(value, k -> {
+                dictionary.add(k);
+                return dictionary.size() - 1;
+            });
+        }
+        size++;
+    }
+
+    @Override
+    void trim() {
+        if (codes.length != size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+        codesByValue = null;
+    }
+
+}
@@ -0,0 +1,248 @@
+package org.jpalite.common;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.SQLException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+public class AccessorFactory {
+
+    private AccessorFactory() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> createGetter(Method method) throws SQLException {
+        try {
+            MethodHandles.Lookup lookup = getLookup(method.getDeclaringClass());
+            MethodHandle target = lookup.unreflect(method);
+            try {
+                // the generated lambda class boxes primitive return values and can be fully inlined by the JIT
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        target,
+                        target.type().wrap());
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (LambdaConversionException ex) {
+                return createGetter(target);
+            }
+        } catch (Throwable ex) {
+            throw new SQLException(String.format("Cannot create accessor for method %s", method.toGenericString()), ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> createSetter(Method method) throws SQLException {
+        try {
+            MethodHandles.Lookup lookup = getLookup(method.getDeclaringClass());
+            MethodHandle target = lookup.unreflect(method);
+            try {
+                // the generated lambda class unboxes values for primitive parameters
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        target,
+                        target.type().wrap().changeReturnType(void.class));
+                return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (LambdaConversionException ex) {
+                return createSetter(target);
+            }
+        } catch (Throwable ex) {
+            throw new SQLException(String.format("Cannot create accessor for method %s", method.toGenericString()), ex);
+        }
+    }
+
+    public static Function<Object, Object> createFieldGetter(Field field) throws SQLException {
+        try {
+            VarHandle varHandle = getLookup(field.getDeclaringClass()).unreflectVarHandle(field);
+            return createGetter(varHandle.toMethodHandle(VarHandle.AccessMode.GET));
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(String.format("Cannot create accessor for field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()), ex);
+        }
+    }
+
+    public static BiConsumer<Object, Object> createFieldSetter(Field field) throws SQLException {
+        if (Modifier.isFinal(field.getModifiers())) {
+            throw new SQLException(String.format("Cannot create accessor for final field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()));
+        }
+        try {
+            VarHandle varHandle = getLookup(field.getDeclaringClass()).unreflectVarHandle(field);
+            return createSetter(varHandle.toMethodHandle(VarHandle.AccessMode.SET));
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(String.format("Cannot create accessor for field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()), ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> createConstructor(Class<T> clazz) throws SQLException {
+        try {
+            MethodHandles.Lookup lookup = getLookup(clazz);
+            MethodHandle target = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        target,
+                        target.type());
+                return (Supplier<T>) callSite.getTarget().invokeExact();
+            } catch (LambdaConversionException ex) {
+                MethodHandle handle = target.asType(MethodType.methodType(Object.class));
+                return () -> {
+                    try {
+                        return (T) handle.invokeExact();
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                };
+            }
+        } catch (Throwable ex) {
+            throw new SQLException(String.format("No default constructor found in class %s", clazz.getSimpleName()), ex);
+        }
+    }
+
+    // setters for primitive fields, taking the value without boxing it
+    @SuppressWarnings("unchecked")
+    public static ObjIntConsumer<Object> createIntSetter(MethodHandle target) throws SQLException {
+        ObjIntConsumer<Object> ret = (ObjIntConsumer<Object>) createPrimitiveSetter(target, ObjIntConsumer.class, int.class);
+        if (ret == null) {
+            MethodHandle handle = target.asType(MethodType.methodType(void.class, Object.class, int.class));
+            ret = (obj, value) -> {
+                try {
+                    handle.invokeExact(obj, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static ObjLongConsumer<Object> createLongSetter(MethodHandle target) throws SQLException {
+        ObjLongConsumer<Object> ret = (ObjLongConsumer<Object>) createPrimitiveSetter(target, ObjLongConsumer.class, long.class);
+        if (ret == null) {
+            MethodHandle handle = target.asType(MethodType.methodType(void.class, Object.class, long.class));
+            ret = (obj, value) -> {
+                try {
+                    handle.invokeExact(obj, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static ObjDoubleConsumer<Object> createDoubleSetter(MethodHandle target) throws SQLException {
+        ObjDoubleConsumer<Object> ret = (ObjDoubleConsumer<Object>) createPrimitiveSetter(target, ObjDoubleConsumer.class, double.class);
+        if (ret == null) {
+            MethodHandle handle = target.asType(MethodType.methodType(void.class, Object.class, double.class));
+            ret = (obj, value) -> {
+                try {
+                    handle.invokeExact(obj, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return ret;
+    }
+
+    public static MethodHandle createSetterHandle(Method method) throws SQLException {
+        try {
+            return getLookup(method.getDeclaringClass()).unreflect(method);
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(String.format("Cannot create accessor for method %s", method.toGenericString()), ex);
+        }
+    }
+
+    public static MethodHandle createFieldSetterHandle(Field field) throws SQLException {
+        if (Modifier.isFinal(field.getModifiers())) {
+            throw new SQLException(String.format("Cannot create accessor for final field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()));
+        }
+        try {
+            return getLookup(field.getDeclaringClass()).unreflectVarHandle(field).toMethodHandle(VarHandle.AccessMode.SET);
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(String.format("Cannot create accessor for field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()), ex);
+        }
+    }
+
+    public static MethodHandle createConstructorHandle(Class<?> clazz) throws SQLException {
+        try {
+            return getLookup(clazz).findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (IllegalAccessException | NoSuchMethodException ex) {
+            throw new SQLException(String.format("No default constructor found in class %s", clazz.getSimpleName()), ex);
+        }
+    }
+
+    public static MethodHandle createConstructorHandle(Class<?> clazz, Class<?>... parameterTypes) throws SQLException {
+        try {
+            return getLookup(clazz).findConstructor(clazz, MethodType.methodType(void.class, parameterTypes));
+        } catch (IllegalAccessException | NoSuchMethodException ex) {
+            throw new SQLException(String.format("No suitable constructor found in class %s", clazz.getSimpleName()), ex);
+        }
+    }
+
+    private static MethodHandles.Lookup getLookup(Class<?> clazz) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+    }
+
+    // returns null when the target is not a direct method handle, e.g. a field setter obtained from a VarHandle
+    private static Object createPrimitiveSetter(MethodHandle target, Class<?> functionalInterface, Class<?> primitiveType) throws SQLException {
+        try {
+            MethodHandles.Lookup lookup = getLookup(target.type().parameterType(0));
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(functionalInterface),
+                    MethodType.methodType(void.class, Object.class, primitiveType),
+                    target,
+                    target.type().changeReturnType(void.class));
+            return callSite.getTarget().invoke();
+        } catch (LambdaConversionException ex) {
+            return null;
+        } catch (Throwable ex) {
+            throw new SQLException(String.format("Cannot create accessor for %s", target), ex);
+        }
+    }
+
+    private static Function<Object, Object> createGetter(MethodHandle target) {
+        MethodHandle handle = target.asType(MethodType.methodType(Object.class, Object.class));
+        return obj -> {
+            try {
+                return handle.invokeExact(obj);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> createSetter(MethodHandle target) {
+        MethodHandle handle = target.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (obj, value) -> {
+            try {
+                handle.invokeExact(obj, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException ex) {
+            return ex;
+        }
+        if (t instanceof Error err) {
+            throw err;
+        }
+        return new UndeclaredThrowableException(t);
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.jpalite.common;
+
+import org.jpalite.dto.BatchConfig;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Decides when a batch is executed, by rows, estimated bytes or, in adaptive mode, observed latency
+public class BatchChunker {
+
+    private final BatchConfig config;
+    private final long targetLatencyNanos;
+    private int chunkRows;
+    private int pendingRows;
+    private long pendingBytes;
+
+    public BatchChunker(BatchConfig config) {
+        this.config = config;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetLatencyMillis());
+        this.chunkRows = config.isAdaptive() ? Math.max(1, config.getMinRows()) : config.getMaxRows();
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    // when false, there is no need to estimate the size of bound parameters
+    public boolean isSizeBounded() {
+        return config.getMaxBytes() > 0;
+    }
+
+    // called after every addBatch, true when the batch should be executed
+    public boolean add(int rows, long bytes) {
+        pendingRows += rows;
+        if (isSizeBounded()) {
+            pendingBytes += bytes;
+            if (pendingBytes >= config.getMaxBytes()) {
+                return true;
+            }
+        }
+        return chunkRows > 0 && pendingRows >= chunkRows;
+    }
+
+    public boolean hasPending() {
+        return pendingRows > 0;
+    }
+
+    public int[] executeBatch(PreparedStatement stmt) throws SQLException {
+        long startTime = System.nanoTime();
+        int[] ret = stmt.executeBatch();
+        executed(pendingRows, System.nanoTime() - startTime);
+        return ret;
+    }
+
+    void executed(int rows, long elapsedNanos) {
+        pendingRows = 0;
+        pendingBytes = 0;
+        if (!config.isAdaptive() || rows < chunkRows) {
+            return;
+        }
+        int maxRows = config.getMaxRows() > 0 ? config.getMaxRows() : Integer.MAX_VALUE;
+        if (elapsedNanos > targetLatencyNanos) {
+            chunkRows = Math.max(Math.max(1, config.getMinRows()), chunkRows / 2);
+        } else if (elapsedNanos < targetLatencyNanos / 2) {
+            chunkRows = (int) Math.min(maxRows, chunkRows * 2L);
+        }
+    }
+
+}
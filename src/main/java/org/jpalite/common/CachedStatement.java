@@ -0,0 +1,118 @@
+package org.jpalite.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// A prepared statement, returned to its cache when closed
+public class CachedStatement implements AutoCloseable {
+
+    private final String sql;
+    private final PreparedStatement statement;
+    private int[] parameterTypes;
+    private boolean metadataUnavailable;
+    private final StatementCache cache;
+    // streams of the files bound to the statement, closed when it is closed or released
+    private List<InputStream> files;
+    boolean inUse;
+    boolean evicted;
+
+    CachedStatement(String sql, PreparedStatement statement, StatementCache cache) {
+        this.sql = sql;
+        this.statement = statement;
+        this.cache = cache;
+    }
+
+    public static CachedStatement prepare(Connection conn, String sql) throws SQLException {
+        return new CachedStatement(sql, conn.prepareStatement(sql), null);
+    }
+
+    public PreparedStatement getStatement() {
+        return statement;
+    }
+
+    public boolean isCached() {
+        return cache != null;
+    }
+
+    // uncached statements count placeholders rather than reading their metadata
+    public void checkParameters(Object... params) throws SQLException {
+        StatementUtils.checkStatementParameters(isCached() ? getParameterTypes().length : StatementUtils.countParameters(sql), params);
+    }
+
+    // types of the parameters of cached statements, null for uncached ones
+    public int[] getKnownParameterTypes() throws SQLException {
+        return isCached() ? getParameterTypes() : null;
+    }
+
+    // types of the parameters for binding nulls, read once per statement; null when the driver provides no metadata
+    public int[] getNullParameterTypes() {
+        if (!metadataUnavailable) {
+            try {
+                return getParameterTypes();
+            } catch (SQLException ex) {
+                metadataUnavailable = true;
+            }
+        }
+        return null;
+    }
+
+    public int[] getParameterTypes() throws SQLException {
+        if (parameterTypes == null) {
+            parameterTypes = StatementUtils.getParameterTypes(statement.getParameterMetaData());
+        }
+        return parameterTypes;
+    }
+
+    // binds the content of the file as a stream of known length, so that it is never held in memory at once
+    public void bindFile(int parameterIndex, Path path) throws SQLException {
+        try {
+            long length = Files.size(path);
+            InputStream in = Files.newInputStream(path);
+            if (files == null) {
+                files = new ArrayList<>();
+            }
+            files.add(in);
+            statement.setBinaryStream(parameterIndex, in, length);
+        } catch (IOException ex) {
+            throw new SQLException(String.format("Cannot read file %s", path), ex);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (files != null) {
+                closeFiles();
+            }
+        } finally {
+            if (cache == null) {
+                statement.close();
+            } else {
+                cache.release(this);
+            }
+        }
+    }
+
+    private void closeFiles() throws SQLException {
+        IOException failure = null;
+        for (var in : files) {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        files = null;
+        if (failure != null) {
+            throw new SQLException("Cannot close bound file", failure);
+        }
+    }
+
+}
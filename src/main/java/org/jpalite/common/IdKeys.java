@@ -0,0 +1,29 @@
+package org.jpalite.common;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class IdKeys {
+
+    private IdKeys() {
+    }
+
+    // numbers are normalized, so that ids given as Integer or Long make the same key
+    public static List<Object> of(Object[] ids) {
+        List<Object> ret = new ArrayList<>(ids.length);
+        for (var id : ids) {
+            ret.add(switch (id) {
+                case Byte value -> value.longValue();
+                case Short value -> value.longValue();
+                case Integer value -> value.longValue();
+                case Float value -> value.doubleValue();
+                case BigDecimal value -> value.stripTrailingZeros();
+                case null, default -> id;
+            });
+        }
+        return Collections.unmodifiableList(ret);
+    }
+
+}
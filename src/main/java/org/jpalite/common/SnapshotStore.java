@@ -0,0 +1,70 @@
+package org.jpalite.common;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Column values of beans as read or last written, weakly keyed by bean identity
+public class SnapshotStore {
+
+    private final Map<BeanKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    // values are null without dirty checking, loaded columns are null when every column was read
+    public void put(Object bean, Object[] values, BitSet loadedColumns) {
+        expunge();
+        snapshots.put(new BeanKey(bean, collected), new Snapshot(values == null ? null : Values.copy(values), loadedColumns));
+    }
+
+    public Snapshot get(Object bean) {
+        return snapshots.get(new BeanKey(bean, null));
+    }
+
+    public void remove(Object bean) {
+        snapshots.remove(new BeanKey(bean, null));
+    }
+
+    public int size() {
+        expunge();
+        return snapshots.size();
+    }
+
+    private void expunge() {
+        Object key;
+        while ((key = collected.poll()) != null) {
+            snapshots.remove(key);
+        }
+    }
+
+    // loaded columns are indexes of the insert parameters
+    public record Snapshot(Object[] values, BitSet loadedColumns) {
+    }
+
+    private static class BeanKey extends WeakReference<Object> {
+
+        // kept, since the referent is gone when a collected key is removed
+        private final int hashCode;
+
+        private BeanKey(Object bean, ReferenceQueue<Object> queue) {
+            super(bean, queue);
+            this.hashCode = System.identityHashCode(bean);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            return obj instanceof BeanKey other && hashCode == other.hashCode && get() != null && get() == other.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -0,0 +1,166 @@
+package org.jpalite.common;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// LRU cache of the statements of a connection, each lent to one caller at a time
+public class StatementCache {
+
+    private final Connection conn;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // a lock rather than synchronized, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+
+    public StatementCache(Connection conn, int maxSize, LongAdder hits, LongAdder misses) {
+        this.conn = conn;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    // statements are prepared without holding the lock, since preparing may be a round trip to the database
+    public CachedStatement prepare(String sql) throws SQLException {
+        lock.lock();
+        try {
+            if (closed) {
+                return CachedStatement.prepare(conn, sql);
+            }
+            CachedStatement ret = statements.get(sql);
+            if (ret != null && !ret.inUse && ret.getStatement().isClosed()) {
+                statements.remove(sql);
+                ret.evicted = true;
+                ret = null;
+            }
+            if (ret != null && !ret.inUse) {
+                hits.increment();
+                ret.inUse = true;
+                return ret;
+            }
+            misses.increment();
+            // in use, e.g. by an open result iterator
+            if (ret != null) {
+                return CachedStatement.prepare(conn, sql);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        CachedStatement ret;
+        List<CachedStatement> evicted;
+        lock.lock();
+        try {
+            // cached by a concurrent caller in the meantime
+            if (closed || statements.containsKey(sql)) {
+                return new CachedStatement(sql, stmt, null);
+            }
+            ret = new CachedStatement(sql, stmt, this);
+            ret.inUse = true;
+            statements.put(sql, ret);
+            evicted = evict();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            closeAll(evicted);
+        } catch (SQLException ex) {
+            ret.close();
+            throw ex;
+        }
+        return ret;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return statements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // closes all cached statements, statements still in use are closed when released
+    public void close() throws SQLException {
+        List<CachedStatement> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (var cs : statements.values()) {
+                cs.evicted = true;
+                if (!cs.inUse) {
+                    toClose.add(cs);
+                }
+            }
+            statements.clear();
+        } finally {
+            lock.unlock();
+        }
+        closeAll(toClose);
+    }
+
+    void release(CachedStatement cs) throws SQLException {
+        PreparedStatement stmt = cs.getStatement();
+        lock.lock();
+        try {
+            cs.inUse = false;
+            if (!closed && !cs.evicted) {
+                try {
+                    stmt.clearParameters();
+                    stmt.clearBatch();
+                    return;
+                } catch (SQLException ex) {
+                    cs.evicted = true;
+                    statements.values().remove(cs);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        stmt.close();
+    }
+
+    // least recently used statements are evicted first, skipping those in use, which are closed when released
+    private List<CachedStatement> evict() {
+        List<CachedStatement> toClose = new ArrayList<>();
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement cs = it.next();
+            it.remove();
+            cs.evicted = true;
+            if (!cs.inUse) {
+                toClose.add(cs);
+            }
+        }
+        return toClose;
+    }
+
+    private static void closeAll(List<CachedStatement> statements) throws SQLException {
+        SQLException error = null;
+        for (var cs : statements) {
+            try {
+                cs.getStatement().close();
+            } catch (SQLException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+}
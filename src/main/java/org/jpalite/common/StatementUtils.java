@@ -1,8 +1,20 @@
 package org.jpalite.common;
 
+import org.jpalite.dto.SizedInputStream;
+import org.jpalite.dto.SizedReader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
 
 public class StatementUtils {
 
@@ -19,6 +31,9 @@ public class StatementUtils {
 
     public static void setStatementParameters(PreparedStatement stmt, ParameterMetaData parameterMetaData, Object... params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
+            if (bindLob(stmt, i + 1, params[i])) {
+                continue;
+            }
             if (params[i] != null) {
                 stmt.setObject(i + 1, params[i], parameterMetaData.getParameterType(i + 1));
             } else {
@@ -27,4 +42,120 @@ public class StatementUtils {
         }
     }
 
+    // parameter types are read once per statement, so that binding does not call ParameterMetaData for every row
+    public static int[] getParameterTypes(ParameterMetaData parameterMetaData) throws SQLException {
+        int[] ret = new int[parameterMetaData.getParameterCount()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = parameterMetaData.getParameterType(i + 1);
+        }
+        return ret;
+    }
+
+    public static void checkStatementParameters(int parameterCount, Object... params) throws SQLException {
+        int paramsCount = params == null ? 0 : params.length;
+        if (parameterCount != paramsCount) {
+            throw new SQLException(String.format("Query needs %d parameters but %d were provided", parameterCount, paramsCount));
+        }
+    }
+
+    // placeholders outside of quoted literals, quoted identifiers and comments
+    public static int countParameters(String sql) {
+        int ret = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '-' && sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else {
+                if (c == '?') {
+                    ret++;
+                }
+                i++;
+            }
+        }
+        return ret;
+    }
+
+    public static void setStatementParameters(PreparedStatement stmt, int[] parameterTypes, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            if (bindLob(stmt, i + 1, params[i])) {
+                continue;
+            }
+            if (params[i] != null) {
+                stmt.setObject(i + 1, params[i], parameterTypes[i]);
+            } else {
+                stmt.setNull(i + 1, parameterTypes[i]);
+            }
+        }
+    }
+
+    // parameter types, when given, are only used for nulls and unknown types
+    public static void bindStatementParameters(PreparedStatement stmt, int[] parameterTypes, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            switch (params[i]) {
+                case null -> stmt.setNull(i + 1, parameterTypes == null ? Types.NULL : parameterTypes[i]);
+                case String value -> stmt.setString(i + 1, value);
+                case Short value -> stmt.setShort(i + 1, value);
+                case Integer value -> stmt.setInt(i + 1, value);
+                case Long value -> stmt.setLong(i + 1, value);
+                case Float value -> stmt.setFloat(i + 1, value);
+                case Double value -> stmt.setDouble(i + 1, value);
+                case BigDecimal value -> stmt.setBigDecimal(i + 1, value);
+                case Timestamp value -> stmt.setTimestamp(i + 1, value);
+                case Date value when value.getClass() == Date.class -> stmt.setTimestamp(i + 1, new Timestamp(value.getTime()));
+                case byte[] value -> stmt.setBytes(i + 1, value);
+                default -> {
+                    if (bindLob(stmt, i + 1, params[i])) {
+                        continue;
+                    }
+                    if (parameterTypes == null) {
+                        stmt.setObject(i + 1, params[i]);
+                    } else {
+                        stmt.setObject(i + 1, params[i], parameterTypes[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // paths are bound by CachedStatement.bindFile
+    private static boolean bindLob(PreparedStatement stmt, int parameterIndex, Object value) throws SQLException {
+        switch (value) {
+            case InputStream in -> stmt.setBinaryStream(parameterIndex, in);
+            case Reader reader -> stmt.setCharacterStream(parameterIndex, reader);
+            case SizedInputStream in -> stmt.setBinaryStream(parameterIndex, in.stream(), in.length());
+            case SizedReader reader -> stmt.setCharacterStream(parameterIndex, reader.reader(), reader.length());
+            case Blob blob -> stmt.setBlob(parameterIndex, blob);
+            case Clob clob -> stmt.setClob(parameterIndex, clob);
+            case Path ignored -> {
+            }
+            case null, default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // rough size of the bound values, used to bound the memory held by batches
+    public static long estimateSize(Object... params) {
+        long ret = 0;
+        for (var param : params) {
+            ret += switch (param) {
+                case null -> 1;
+                case String str -> 2L * str.length();
+                case BigDecimal bd -> bd.unscaledValue().bitLength() / 8 + 8;
+                case byte[] bytes -> bytes.length;
+                default -> 8;
+            };
+        }
+        return ret;
+    }
+
 }
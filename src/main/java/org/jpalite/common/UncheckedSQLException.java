@@ -0,0 +1,17 @@
+package org.jpalite.common;
+
+import java.sql.SQLException;
+
+// Wraps an SQLException thrown where checked exceptions cannot propagate, e.g. while consuming a Stream
+public class UncheckedSQLException extends RuntimeException {
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.jpalite.common;
+
+import java.util.Date;
+
+public class Values {
+
+    private Values() {
+    }
+
+    // dates and byte arrays are the mutable values beans can hold, streams and LOB handles are kept as they are
+    public static Object[] copy(Object[] values) {
+        Object[] ret = values.clone();
+        for (int i = 0; i < ret.length; i++) {
+            if (ret[i] instanceof Date date) {
+                ret[i] = new Date(date.getTime());
+            } else if (ret[i] instanceof byte[] bytes) {
+                ret[i] = bytes.clone();
+            }
+        }
+        return ret;
+    }
+
+}
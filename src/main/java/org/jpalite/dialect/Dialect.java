@@ -0,0 +1,11 @@
+package org.jpalite.dialect;
+
+import java.util.List;
+
+// implementations are stateless, since statements are cached per dialect class
+public interface Dialect {
+
+    // every column is bound once, in the order of the column labels
+    String generateUpsertStatement(String tableName, List<String> columnLabels, List<String> idColumnLabels);
+
+}
@@ -0,0 +1,17 @@
+package org.jpalite.dialect;
+
+import java.util.Collections;
+import java.util.List;
+
+// MERGE INTO ... KEY (...) VALUES (...), also used by HSQLDB
+public class H2Dialect implements Dialect {
+
+    @Override
+    public String generateUpsertStatement(String tableName, List<String> columnLabels, List<String> idColumnLabels) {
+        return "MERGE INTO " + tableName
+                + " (" + String.join(", ", columnLabels) + ")"
+                + " KEY (" + String.join(", ", idColumnLabels) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columnLabels.size(), "?")) + ")";
+    }
+
+}
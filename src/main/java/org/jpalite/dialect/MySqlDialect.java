@@ -0,0 +1,21 @@
+package org.jpalite.dialect;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// matches any unique key, not only the @Id columns; the row alias replaces VALUES(col), deprecated since 8.0.20
+public class MySqlDialect implements Dialect {
+
+    @Override
+    public String generateUpsertStatement(String tableName, List<String> columnLabels, List<String> idColumnLabels) {
+        List<String> dataColumnLabels = columnLabels.stream().filter(i -> !idColumnLabels.contains(i)).toList();
+        // with only @Id columns, a no-op assignment keeps the existing row
+        List<String> updatedColumnLabels = dataColumnLabels.isEmpty() ? idColumnLabels.subList(0, 1) : dataColumnLabels;
+        return "INSERT INTO " + tableName
+                + " (" + String.join(", ", columnLabels) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columnLabels.size(), "?")) + ")"
+                + " AS new ON DUPLICATE KEY UPDATE " + updatedColumnLabels.stream().map(i -> i + " = new." + i).collect(Collectors.joining(", "));
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.jpalite.dialect;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// INSERT ... ON CONFLICT (...) DO UPDATE, also supported by SQLite
+public class PostgreSqlDialect implements Dialect {
+
+    @Override
+    public String generateUpsertStatement(String tableName, List<String> columnLabels, List<String> idColumnLabels) {
+        List<String> dataColumnLabels = columnLabels.stream().filter(i -> !idColumnLabels.contains(i)).toList();
+        return "INSERT INTO " + tableName
+                + " (" + String.join(", ", columnLabels) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columnLabels.size(), "?")) + ")"
+                + " ON CONFLICT (" + String.join(", ", idColumnLabels) + ")"
+                + (dataColumnLabels.isEmpty() ? " DO NOTHING"
+                : " DO UPDATE SET " + dataColumnLabels.stream().map(i -> i + " = EXCLUDED." + i).collect(Collectors.joining(", ")));
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.jpalite.dto;
+
+import lombok.Data;
+
+@Data
+public class BatchConfig {
+
+    // rows per executeBatch call, the upper bound in adaptive mode; 0 disables the limit
+    private int maxRows;
+    // estimated size of bound parameters per executeBatch call; 0 disables the limit
+    private long maxBytes;
+    // when true, the chunk size is tuned between minRows and maxRows to keep executeBatch close to targetLatencyMillis
+    private boolean adaptive;
+    private int minRows = 100;
+    private long targetLatencyMillis = 200;
+    // when true, beans are inserted with multi-row INSERT ... VALUES (...), (...) statements
+    private boolean multiRowInsert;
+    // bound parameters per multi-row statement, which limits the rows grouped in each of them
+    private int maxParameters = 2_000;
+
+}
@@ -2,8 +2,10 @@ package org.jpalite.dto;
 
 import lombok.Data;
 import org.jpalite.processor.column.ColumnProcessor;
+import org.jpalite.processor.parameter.ParameterBinder;
 
-import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 @Data
 public class ColumnMapping {
@@ -11,10 +13,13 @@ public class ColumnMapping {
     private int columnIndex;
     private String columnLabel;
     private String fieldName;
+    private Class<?> fieldType;
     private boolean isPrimitive;
     private boolean isId;
+    private boolean isLazy;
     private ColumnProcessor<?> columnProcessor;
-    private Method readMethod;
-    private Method writeMethod;
+    private ParameterBinder<Object> parameterBinder;
+    private Function<Object, Object> getter;
+    private BiConsumer<Object, Object> setter;
 
 }
@@ -0,0 +1,15 @@
+package org.jpalite.dto;
+
+import lombok.Data;
+
+@Data
+public class EntityCacheConfig {
+
+    // entries per entity class, least recently used ones are evicted first
+    private int maxSize = 10_000;
+    // time to live of cached entities; 0 keeps them until evicted or invalidated
+    private long ttlMillis;
+    // time to live of ids found missing; 0 disables negative caching
+    private long negativeTtlMillis;
+
+}
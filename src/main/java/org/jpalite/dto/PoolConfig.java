@@ -0,0 +1,23 @@
+package org.jpalite.dto;
+
+import lombok.Data;
+
+@Data
+public class PoolConfig {
+
+    // physical connections, borrowed and idle
+    private int maxSize = 10;
+    // idle connections kept open by housekeeping
+    private int minIdle;
+    // how long getConnection waits for a connection before failing
+    private long connectionTimeoutMillis = 30_000;
+    // idle connections are validated on borrow when unused for longer than this
+    private long validationIntervalMillis = 1_000;
+    private int validationTimeoutSeconds = 5;
+    // idle connections above minIdle are closed when unused for longer than this; 0 disables idle eviction
+    private long idleTimeoutMillis = 600_000;
+    // connections are closed once older than this, when idle or returned; 0 disables the limit
+    private long maxLifetimeMillis = 1_800_000;
+    private long housekeepingIntervalMillis = 30_000;
+
+}
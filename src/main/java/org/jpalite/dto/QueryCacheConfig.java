@@ -0,0 +1,13 @@
+package org.jpalite.dto;
+
+import lombok.Data;
+
+@Data
+public class QueryCacheConfig {
+
+    // cached results, least recently used ones are evicted first
+    private int maxSize = 1_000;
+    // time to live of cached results; 0 keeps them until evicted or invalidated
+    private long ttlMillis;
+
+}
@@ -0,0 +1,7 @@
+package org.jpalite.dto;
+
+import java.io.InputStream;
+
+// a stream bound with its length, so that drivers stream it instead of buffering it to find its end
+public record SizedInputStream(InputStream stream, long length) {
+}
@@ -0,0 +1,7 @@
+package org.jpalite.dto;
+
+import java.io.Reader;
+
+// a reader bound with its length in characters, as SizedInputStream
+public record SizedReader(Reader reader, long length) {
+}
@@ -0,0 +1,56 @@
+package org.jpalite.mapper;
+
+import org.jpalite.dto.ColumnMapping;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Generated by EntityMapperProcessor, and used by bean processors instead of reflection
+public interface EntityMapper<T> {
+
+    String MAPPER_SUFFIX = "_JpaLiteMapper";
+
+    Class<T> getBeanClass();
+
+    // bean fields in declaration order, with column labels and @Id flags
+    List<ColumnMapping> getColumnMappings();
+
+    // column index of each field, 0 when not selected
+    T process(ResultSet rs, int[] columnIndexes) throws SQLException;
+
+    // same as process, but populates an existing instance
+    T populate(T ret, ResultSet rs, int[] columnIndexes) throws SQLException;
+
+    // values holds, for each bean field in declaration order, the value to assign
+    T create(Object[] values) throws SQLException;
+
+    String getInsertStatement();
+
+    // null when the bean has no @Id fields or only @Id fields
+    String getUpdateStatement();
+
+    // null when the bean has no @Id fields
+    String getDeleteStatement();
+
+    Object[] getInsertParameters(T obj);
+
+    Object[] getUpdateParameters(T obj);
+
+    Object[] getIdParameters(T obj);
+
+    // binds the insert parameters of obj after the first offset ones, so that several beans can share a multi-row statement
+    void bindInsertParameters(PreparedStatement stmt, int offset, T obj) throws SQLException;
+
+    void bindUpdateParameters(PreparedStatement stmt, T obj) throws SQLException;
+
+    void bindIdParameters(PreparedStatement stmt, T obj) throws SQLException;
+
+    static String getMapperName(Class<?> clazz) {
+        String packageName = clazz.getPackageName();
+        String simpleName = packageName.isEmpty() ? clazz.getName() : clazz.getName().substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + MAPPER_SUFFIX;
+    }
+
+}
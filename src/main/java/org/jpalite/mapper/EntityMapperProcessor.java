@@ -0,0 +1,318 @@
+package org.jpalite.mapper;
+
+import org.jpalite.annotation.Column;
+import org.jpalite.annotation.Id;
+import org.jpalite.annotation.Table;
+import org.jpalite.processor.ColumnType;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Generates an EntityMapper per @Table class; classes it cannot map are skipped with a note and use reflection
+@SupportedAnnotationTypes("org.jpalite.annotation.Table")
+public class EntityMapperProcessor extends AbstractProcessor {
+
+    private static final Set<String> ACCESS_NONE = Set.of("NONE", "PRIVATE");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream().filter(f -> f.getAnnotation(Column.class) != null).toList();
+            String reason = checkType(type, fields);
+            if (reason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format("JpaLite mapper not generated for class %s: %s", type.getSimpleName(), reason), type);
+                continue;
+            }
+            try {
+                writeMapper(type, fields);
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("Cannot write JpaLite mapper for class %s: %s", type.getSimpleName(), ex.getMessage()), type);
+            }
+        }
+        return false;
+    }
+
+    // returns the reason why a mapper cannot be generated, or null if it can
+    private String checkType(TypeElement type, List<VariableElement> fields) {
+        if (fields.isEmpty()) {
+            return "no @Column annotated fields";
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "generic classes are not supported";
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "class is abstract";
+        }
+        for (Element e = type; e instanceof TypeElement t; e = t.getEnclosingElement()) {
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return "class is not accessible";
+            }
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local classes are not supported";
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && t.getKind() == ElementKind.CLASS && !t.getModifiers().contains(Modifier.STATIC)) {
+                return "inner classes are not supported";
+            }
+        }
+        if (!hasDefaultConstructor(type, fields)) {
+            return "no default constructor";
+        }
+        for (var field : fields) {
+            if (ColumnType.of(field.asType().toString()) == null) {
+                return String.format("unsupported type for field %s", field.getSimpleName());
+            }
+            if (field.getAnnotation(Column.class).fieldAccess()) {
+                if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+                    return String.format("field %s is not accessible", field.getSimpleName());
+                }
+            } else if (!hasAccessor(type, field, getterName(field), 0, "lombok.Getter") || !hasAccessor(type, field, setterName(field), 1, "lombok.Setter")) {
+                return String.format("no suitable accessor methods for field %s", field.getSimpleName());
+            }
+        }
+        return null;
+    }
+
+    private boolean hasDefaultConstructor(TypeElement type, List<VariableElement> fields) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        if (constructors.stream().anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE))) {
+            return true;
+        }
+        if (hasAnnotation(type, "lombok.NoArgsConstructor")) {
+            return !ACCESS_NONE.contains(getAccessLevel(type, "lombok.NoArgsConstructor"));
+        }
+        // lombok constructors may not be visible yet, in which case the annotations tell which ones will exist
+        if (constructors.stream().anyMatch(c -> !c.getParameters().isEmpty())
+                || hasAnnotation(type, "lombok.AllArgsConstructor")
+                || hasAnnotation(type, "lombok.RequiredArgsConstructor")) {
+            return false;
+        }
+        if (hasAnnotation(type, "lombok.Value")) {
+            return false;
+        }
+        if (hasAnnotation(type, "lombok.Data")) {
+            return fields.stream().noneMatch(f -> f.getModifiers().contains(Modifier.FINAL));
+        }
+        return constructors.isEmpty();
+    }
+
+    private boolean hasAccessor(TypeElement type, VariableElement field, String name, int parameters, String lombokAnnotation) {
+        boolean explicit = ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .anyMatch(m -> m.getSimpleName().contentEquals(name) && m.getParameters().size() == parameters && !m.getModifiers().contains(Modifier.PRIVATE) && !m.getModifiers().contains(Modifier.STATIC));
+        if (explicit) {
+            return true;
+        }
+        if (parameters == 1 && field.getModifiers().contains(Modifier.FINAL)) {
+            return false;
+        }
+        if (hasAnnotation(field, lombokAnnotation)) {
+            return !ACCESS_NONE.contains(getAccessLevel(field, lombokAnnotation));
+        }
+        if (hasAnnotation(type, lombokAnnotation)) {
+            return !ACCESS_NONE.contains(getAccessLevel(type, lombokAnnotation));
+        }
+        return hasAnnotation(type, "lombok.Data");
+    }
+
+    private void writeMapper(TypeElement type, List<VariableElement> fields) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String beanName = type.getQualifiedName().toString();
+        String mapperName = getBinarySimpleName(type).replace('$', '_') + EntityMapper.MAPPER_SUFFIX;
+        String tableName = type.getAnnotation(Table.class).name();
+
+        List<VariableElement> idFields = fields.stream().filter(f -> f.getAnnotation(Id.class) != null).toList();
+        List<VariableElement> dataFields = fields.stream().filter(f -> f.getAnnotation(Id.class) == null).toList();
+        String insertStatement = "INSERT INTO " + tableName
+                + " (" + fields.stream().map(this::columnName).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + fields.stream().map(f -> "?").collect(Collectors.joining(", ")) + ")";
+        String updateStatement = idFields.isEmpty() || dataFields.isEmpty() ? null : "UPDATE " + tableName
+                + " SET " + dataFields.stream().map(f -> columnName(f) + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + idFields.stream().map(f -> columnName(f) + " = ?").collect(Collectors.joining(" AND "));
+        String deleteStatement = idFields.isEmpty() ? null : "DELETE FROM " + tableName
+                + " WHERE " + idFields.stream().map(f -> columnName(f) + " = ?").collect(Collectors.joining(" AND "));
+        List<VariableElement> updateFields = new ArrayList<>(dataFields);
+        updateFields.addAll(idFields);
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + mapperName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.printf("package %s;%n%n", packageName);
+            }
+            out.printf("@javax.annotation.processing.Generated(\"%s\")%n", EntityMapperProcessor.class.getName());
+            out.printf("public final class %s implements org.jpalite.mapper.EntityMapper<%s> {%n%n", mapperName, beanName);
+
+            out.printf("    private static final java.util.List<org.jpalite.dto.ColumnMapping> COLUMN_MAPPINGS = java.util.List.of(%n");
+            for (int i = 0; i < fields.size(); i++) {
+                VariableElement field = fields.get(i);
+                out.printf("            columnMapping(%d, \"%s\", \"%s\", %s.class, %b, %b)%s%n", i + 1, escape(columnName(field)), field.getSimpleName(), field.asType(),
+                        field.getAnnotation(Id.class) != null, field.getAnnotation(Column.class).lazy(), i < fields.size() - 1 ? "," : ");");
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                VariableElement field = fields.get(i);
+                if (!field.asType().getKind().isPrimitive()) {
+                    ColumnType columnType = ColumnType.of(field.asType().toString());
+                    String processor = columnType.createProcessor().getClass().getName();
+                    out.printf("    private static final %s PROCESSOR_%d = new %s();%n", processor, i, processor);
+                    String binder = columnType.createBinder().getClass().getName();
+                    out.printf("    private static final %s BINDER_%d = new %s();%n", binder, i, binder);
+                }
+            }
+            out.println();
+
+            out.printf("    @Override%n    public Class<%s> getBeanClass() {%n        return %s.class;%n    }%n%n", beanName, beanName);
+            out.printf("    @Override%n    public java.util.List<org.jpalite.dto.ColumnMapping> getColumnMappings() {%n        return COLUMN_MAPPINGS;%n    }%n%n");
+
+            out.printf("    @Override%n    public %s process(java.sql.ResultSet rs, int[] columnIndexes) throws java.sql.SQLException {%n", beanName);
+            out.printf("        return populate(new %s(), rs, columnIndexes);%n    }%n%n", beanName);
+
+            // fields not selected by partial projections have no column, and are left unset
+            out.printf("    @Override%n    public %s populate(%s ret, java.sql.ResultSet rs, int[] columnIndexes) throws java.sql.SQLException {%n", beanName, beanName);
+            for (int i = 0; i < fields.size(); i++) {
+                VariableElement field = fields.get(i);
+                String type_ = field.asType().toString();
+                out.printf("        if (columnIndexes[%d] > 0) {%n", i);
+                if (field.asType().getKind().isPrimitive()) {
+                    out.printf("            %s v%d = rs.get%s(columnIndexes[%d]);%n", type_, i, capitalize(type_), i);
+                    out.printf("            if (rs.wasNull()) {%n");
+                    out.printf("                throw new java.sql.SQLException(\"Cannot assign null value to a primitive type for column %s\");%n", escape(columnName(field)));
+                    out.printf("            }%n");
+                    out.printf("            %s;%n", write(field, "v" + i));
+                } else {
+                    out.printf("            %s;%n", write(field, String.format("PROCESSOR_%d.process(rs, columnIndexes[%d])", i, i)));
+                }
+                out.printf("        }%n");
+            }
+            out.printf("        return ret;%n    }%n%n");
+
+            out.printf("    @Override%n    public %s create(Object[] values) throws java.sql.SQLException {%n", beanName);
+            out.printf("        %s ret = new %s();%n", beanName, beanName);
+            for (int i = 0; i < fields.size(); i++) {
+                VariableElement field = fields.get(i);
+                if (field.asType().getKind().isPrimitive()) {
+                    out.printf("        if (values[%d] == null) {%n", i);
+                    out.printf("            throw new java.sql.SQLException(\"Cannot assign null value to a primitive type for column %s\");%n", escape(columnName(field)));
+                    out.printf("        }%n");
+                }
+                out.printf("        %s;%n", write(field, String.format("(%s) values[%d]", field.asType(), i)));
+            }
+            out.printf("        return ret;%n    }%n%n");
+
+            out.printf("    @Override%n    public String getInsertStatement() {%n        return \"%s\";%n    }%n%n", escape(insertStatement));
+            out.printf("    @Override%n    public String getUpdateStatement() {%n        return %s;%n    }%n%n", updateStatement == null ? "null" : "\"" + escape(updateStatement) + "\"");
+            out.printf("    @Override%n    public String getDeleteStatement() {%n        return %s;%n    }%n%n", deleteStatement == null ? "null" : "\"" + escape(deleteStatement) + "\"");
+            out.printf("    @Override%n    public Object[] getInsertParameters(%s obj) {%n        return new Object[]{%s};%n    }%n%n", beanName,
+                    fields.stream().map(this::read).collect(Collectors.joining(", ")));
+            out.printf("    @Override%n    public Object[] getUpdateParameters(%s obj) {%n        return new Object[]{%s};%n    }%n%n", beanName,
+                    updateFields.stream().map(this::read).collect(Collectors.joining(", ")));
+            out.printf("    @Override%n    public Object[] getIdParameters(%s obj) {%n        return new Object[]{%s};%n    }%n%n", beanName,
+                    idFields.stream().map(this::read).collect(Collectors.joining(", ")));
+
+            out.printf("    @Override%n    public void bindInsertParameters(java.sql.PreparedStatement stmt, int offset, %s obj) throws java.sql.SQLException {%n", beanName);
+            for (int i = 0; i < fields.size(); i++) {
+                out.printf("        %s;%n", bind(fields, fields.get(i), "offset + " + (i + 1)));
+            }
+            out.printf("    }%n%n");
+            out.printf("    @Override%n    public void bindUpdateParameters(java.sql.PreparedStatement stmt, %s obj) throws java.sql.SQLException {%n", beanName);
+            for (int i = 0; i < updateFields.size(); i++) {
+                out.printf("        %s;%n", bind(fields, updateFields.get(i), String.valueOf(i + 1)));
+            }
+            out.printf("    }%n%n");
+            out.printf("    @Override%n    public void bindIdParameters(java.sql.PreparedStatement stmt, %s obj) throws java.sql.SQLException {%n", beanName);
+            for (int i = 0; i < idFields.size(); i++) {
+                out.printf("        %s;%n", bind(fields, idFields.get(i), String.valueOf(i + 1)));
+            }
+            out.printf("    }%n%n");
+
+            out.printf("    private static org.jpalite.dto.ColumnMapping columnMapping(int columnIndex, String columnLabel, String fieldName, Class<?> fieldType, boolean isId, boolean isLazy) {%n");
+            out.printf("        org.jpalite.dto.ColumnMapping ret = new org.jpalite.dto.ColumnMapping();%n");
+            out.printf("        ret.setColumnIndex(columnIndex);%n");
+            out.printf("        ret.setColumnLabel(columnLabel);%n");
+            out.printf("        ret.setFieldName(fieldName);%n");
+            out.printf("        ret.setFieldType(fieldType);%n");
+            out.printf("        ret.setPrimitive(fieldType.isPrimitive());%n");
+            out.printf("        ret.setId(isId);%n");
+            out.printf("        ret.setLazy(isLazy);%n");
+            out.printf("        return ret;%n    }%n%n");
+            out.printf("}%n");
+        }
+    }
+
+    private String columnName(VariableElement field) {
+        return field.getAnnotation(Column.class).name();
+    }
+
+    private String read(VariableElement field) {
+        return field.getAnnotation(Column.class).fieldAccess() ? "obj." + field.getSimpleName() : "obj." + getterName(field) + "()";
+    }
+
+    // primitive fields are bound with the typed setter, others through the binder generated for the field
+    private String bind(List<VariableElement> fields, VariableElement field, String parameterIndex) {
+        if (field.asType().getKind().isPrimitive()) {
+            return String.format("stmt.set%s(%s, %s)", capitalize(field.asType().toString()), parameterIndex, read(field));
+        }
+        return String.format("BINDER_%d.bind(stmt, %s, %s)", fields.indexOf(field), parameterIndex, read(field));
+    }
+
+    private String write(VariableElement field, String value) {
+        return field.getAnnotation(Column.class).fieldAccess() ? "ret." + field.getSimpleName() + " = " + value : "ret." + setterName(field) + "(" + value + ")";
+    }
+
+    private static String getterName(VariableElement field) {
+        return "get" + capitalize(field.getSimpleName().toString());
+    }
+
+    private static String setterName(VariableElement field) {
+        return "set" + capitalize(field.getSimpleName().toString());
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String getBinarySimpleName(TypeElement type) {
+        return type.getEnclosingElement() instanceof TypeElement enclosing
+                ? getBinarySimpleName(enclosing) + "$" + type.getSimpleName()
+                : type.getSimpleName().toString();
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        return element.getAnnotationMirrors().stream().anyMatch(a -> a.getAnnotationType().toString().equals(annotation));
+    }
+
+    private static String getAccessLevel(Element element, String annotation) {
+        for (var mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotation)) {
+                for (var entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals(annotation.equals("lombok.NoArgsConstructor") ? "access" : "value")) {
+                        String value = entry.getValue().getValue().toString();
+                        return value.substring(value.lastIndexOf('.') + 1);
+                    }
+                }
+            }
+        }
+        return "PUBLIC";
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.jpalite.partition;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// A predicate selecting a disjoint subset of the rows of a partitioned query, replacing PLACEHOLDER in the query
+@Getter
+public class Partition {
+
+    public static final String PLACEHOLDER = "{partition}";
+
+    private final String predicate;
+    private final List<Object> parameters;
+
+    public Partition(String predicate, Object... parameters) {
+        this.predicate = predicate;
+        this.parameters = List.of(parameters);
+    }
+
+}
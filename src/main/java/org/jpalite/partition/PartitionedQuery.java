@@ -0,0 +1,239 @@
+package org.jpalite.partition;
+
+import org.jpalite.EntityManager;
+import org.jpalite.ResultIterator;
+import org.jpalite.common.StatementUtils;
+import org.jpalite.common.UncheckedSQLException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Runs a query once per partition on virtual threads; the first failing partition cancels the others
+public class PartitionedQuery<T> {
+
+    // queue markers, since rows can be null for scalar queries
+    private static final Object NULL_ROW = new Object();
+    private static final Object END_OF_PARTITION = new Object();
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final EntityManager em;
+    private final DataSource dataSource;
+    private final Class<T> clazz;
+    private final List<String> statements;
+    private final List<Object[]> parameters;
+
+    public PartitionedQuery(EntityManager em, DataSource dataSource, Class<T> clazz, String sql, List<Partition> partitions, Object... params) throws SQLException {
+        if (partitions.isEmpty()) {
+            throw new SQLException("At least one partition is required");
+        }
+        int placeholderIndex = sql.indexOf(Partition.PLACEHOLDER);
+        if (placeholderIndex < 0) {
+            throw new SQLException(String.format("Query must contain the %s placeholder", Partition.PLACEHOLDER));
+        }
+        // partition parameters are bound once, so the predicate cannot be repeated
+        if (sql.indexOf(Partition.PLACEHOLDER, placeholderIndex + Partition.PLACEHOLDER.length()) >= 0) {
+            throw new SQLException(String.format("Query must contain the %s placeholder only once", Partition.PLACEHOLDER));
+        }
+        this.em = em;
+        this.dataSource = dataSource;
+        this.clazz = clazz;
+        this.statements = new ArrayList<>(partitions.size());
+        this.parameters = new ArrayList<>(partitions.size());
+        // partition parameters are bound in place of the placeholder, between the query parameters before and after it
+        String before = sql.substring(0, placeholderIndex);
+        String after = sql.substring(placeholderIndex + Partition.PLACEHOLDER.length());
+        int parametersBefore = StatementUtils.countParameters(before);
+        if (parametersBefore > params.length) {
+            throw new SQLException(String.format("Wrong number of parameters, expected at least %d, received %d", parametersBefore, params.length));
+        }
+        for (var partition : partitions) {
+            statements.add(before + "(" + partition.getPredicate() + ")" + after);
+            List<Object> partitionParameters = new ArrayList<>(params.length + partition.getParameters().size());
+            partitionParameters.addAll(List.of(params).subList(0, parametersBefore));
+            partitionParameters.addAll(partition.getParameters());
+            partitionParameters.addAll(List.of(params).subList(parametersBefore, params.length));
+            parameters.add(partitionParameters.toArray());
+        }
+    }
+
+    // when ordered is false, partitions are appended as they complete
+    public List<T> getResultList(int fetchSize, boolean ordered) throws SQLException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ExecutorCompletionService<List<T>> completionService = new ExecutorCompletionService<>(executor);
+            List<Future<List<T>>> futures = new ArrayList<>(statements.size());
+            for (int i = 0; i < statements.size(); i++) {
+                int partition = i;
+                futures.add(completionService.submit(() -> {
+                    try (Connection conn = dataSource.getConnection()) {
+                        try {
+                            return em.getResultList(conn, fetchSize, clazz, statements.get(partition), parameters.get(partition));
+                        } finally {
+                            em.closeStatements(conn);
+                        }
+                    }
+                }));
+            }
+
+            List<T> ret = new ArrayList<>();
+            try {
+                if (ordered) {
+                    // waiting in completion order detects failures as soon as they happen
+                    for (int i = 0; i < futures.size(); i++) {
+                        completionService.take().get();
+                    }
+                    for (var future : futures) {
+                        ret.addAll(future.get());
+                    }
+                } else {
+                    for (int i = 0; i < futures.size(); i++) {
+                        ret.addAll(completionService.take().get());
+                    }
+                }
+            } catch (ExecutionException ex) {
+                executor.shutdownNow();
+                throw unwrap(ex.getCause());
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for partitions", ex);
+            }
+            return ret;
+        }
+    }
+
+    // the stream must be closed to release connections if not exhausted
+    public Stream<T> getResultStream(int fetchSize, boolean ordered) {
+        MergingIterator iterator = new MergingIterator(fetchSize, ordered);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, ordered ? Spliterator.ORDERED : 0), false).onClose(iterator::close);
+    }
+
+    private class MergingIterator implements Iterator<T>, AutoCloseable {
+
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        // one queue per partition when ordered, otherwise a single queue shared by all partitions
+        private final List<BlockingQueue<Object>> queues;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private int currentQueue;
+        private int finishedPartitions;
+        private Object next;
+        private boolean closed;
+
+        private MergingIterator(int fetchSize, boolean ordered) {
+            this.queues = new ArrayList<>(ordered ? statements.size() : 1);
+            for (int i = 0; i < (ordered ? statements.size() : 1); i++) {
+                queues.add(new ArrayBlockingQueue<>(Math.max(fetchSize, 1)));
+            }
+            for (int i = 0; i < statements.size(); i++) {
+                int partition = i;
+                BlockingQueue<Object> queue = queues.get(ordered ? i : 0);
+                executor.execute(() -> produce(partition, fetchSize, queue));
+            }
+        }
+
+        private void produce(int partition, int fetchSize, BlockingQueue<Object> queue) {
+            try {
+                try (Connection conn = dataSource.getConnection()) {
+                    try (ResultIterator<T> it = em.getResultIterator(conn, fetchSize, clazz, statements.get(partition), parameters.get(partition))) {
+                        while (it.hasNext()) {
+                            T row = it.next();
+                            queue.put(row == null ? NULL_ROW : row);
+                        }
+                    } finally {
+                        em.closeStatements(conn);
+                    }
+                }
+                queue.put(END_OF_PARTITION);
+            } catch (InterruptedException ex) {
+                // closed by the consumer
+            } catch (Throwable t) {
+                // errors included, since the consumer would otherwise poll forever
+                if (failure.compareAndSet(null, t)) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (closed || finishedPartitions == statements.size()) {
+                    close();
+                    return false;
+                }
+                Object item;
+                try {
+                    // rows of the current partition may never come when another partition fails
+                    item = queues.get(currentQueue).poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedSQLException(new SQLException("Interrupted while waiting for partition rows", ex));
+                }
+                if (item == null) {
+                    if (failure.get() != null) {
+                        close();
+                        throw new UncheckedSQLException(unwrap(failure.get()));
+                    }
+                } else if (item == END_OF_PARTITION) {
+                    finishedPartitions++;
+                    if (queues.size() > 1) {
+                        currentQueue++;
+                    }
+                } else {
+                    next = item;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object ret = next;
+            next = null;
+            return ret == NULL_ROW ? null : (T) ret;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                // producers blocked on full queues are interrupted, and release their connections
+                executor.shutdownNow();
+            }
+        }
+
+    }
+
+    private static SQLException unwrap(Throwable t) {
+        if (t instanceof UncheckedSQLException ex) {
+            return ex.getCause();
+        }
+        if (t instanceof SQLException ex) {
+            return ex;
+        }
+        return new SQLException("Partition query failed", t);
+    }
+
+}
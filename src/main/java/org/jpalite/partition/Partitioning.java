@@ -0,0 +1,56 @@
+package org.jpalite.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Strategies splitting a query into partitions, to be run concurrently
+public class Partitioning {
+
+    private Partitioning() {
+    }
+
+    // contiguous ranges of a numeric key between min and max inclusive, of about the same width
+    public static List<Partition> ranges(String column, long min, long max, int partitions) {
+        checkPartitions(partitions);
+        if (max < min) {
+            throw new IllegalArgumentException(String.format("Invalid key range %d to %d", min, max));
+        }
+        List<Partition> ret = new ArrayList<>(partitions);
+        // the span max - min and the distance to max are unsigned, so that extreme ranges do not overflow
+        long step = Long.divideUnsigned(max - min, partitions);
+        long from = min;
+        for (int i = 0; i < partitions; i++) {
+            long to = i == partitions - 1 || Long.compareUnsigned(max - from, step) <= 0 ? max : from + step;
+            ret.add(new Partition(column + " >= ? AND " + column + " <= ?", from, to));
+            if (to == max) {
+                break;
+            }
+            from = to + 1;
+        }
+        return ret;
+    }
+
+    // buckets by remainder of an integer key, negative keys included
+    public static List<Partition> modulo(String column, int buckets) {
+        checkPartitions(buckets);
+        List<Partition> ret = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            ret.add(new Partition("MOD(" + column + ", ?) IN (?, ?)", buckets, i, i == 0 ? 0 : i - buckets));
+        }
+        return ret;
+    }
+
+    // explicit predicates without parameters, which together must select every row exactly once
+    public static List<Partition> predicates(String... predicates) {
+        checkPartitions(predicates.length);
+        return Arrays.stream(predicates).map(Partition::new).toList();
+    }
+
+    private static void checkPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+    }
+
+}
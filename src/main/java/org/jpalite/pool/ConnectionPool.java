@@ -0,0 +1,435 @@
+package org.jpalite.pool;
+
+import org.jpalite.dto.PoolConfig;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// Pools the connections of a data source without pinning virtual threads; closing a borrowed proxy returns it
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(ConnectionPool.class.getName());
+
+    private final DataSource source;
+    private final PoolConfig config;
+    // one permit per connection that can be borrowed at the same time
+    private final Semaphore permits;
+    // most recently returned first, so that surplus connections stay unused and get evicted
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService housekeeper;
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    public ConnectionPool(DataSource source, PoolConfig config) {
+        if (config.getMaxSize() < 1) {
+            throw new IllegalArgumentException("Pool max size must be positive");
+        }
+        if (config.getMinIdle() < 0 || config.getMinIdle() > config.getMaxSize()) {
+            throw new IllegalArgumentException(String.format("Pool min idle must be between 0 and the max size %d", config.getMaxSize()));
+        }
+        if (config.getHousekeepingIntervalMillis() <= 0) {
+            throw new IllegalArgumentException("Pool housekeeping interval must be positive");
+        }
+        this.source = source;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread ret = new Thread(r, "jpalite-pool-housekeeper");
+            ret.setDaemon(true);
+            return ret;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, config.getHousekeepingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long startTime = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException(String.format("No connection available within %d ms", config.getConnectionTimeoutMillis()));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", ex);
+        }
+        long waitNanos = System.nanoTime() - startTime;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        borrowCount.increment();
+
+        try {
+            PooledConnection ret = pollIdle();
+            if (ret == null) {
+                ret = create();
+            }
+            activeCount.incrementAndGet();
+            return ret.borrow();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the credentials of the underlying data source");
+    }
+
+    // borrowed connections are closed when returned
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    // threads waiting for a connection
+    public int getPendingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    public long getClosedCount() {
+        return closedCount.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return source.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        source.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        source.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return source.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return source.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : source.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || source.isWrapperFor(iface);
+    }
+
+    private PooledConnection pollIdle() {
+        PooledConnection ret;
+        while ((ret = idle.pollFirst()) != null) {
+            long now = System.nanoTime();
+            if (isExpired(ret, now) || (now - ret.lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis()) && !isValid(ret))) {
+                destroy(ret);
+            } else {
+                return ret;
+            }
+        }
+        return null;
+    }
+
+    // counted before being opened, so that housekeeping sees the connections being opened by borrowers
+    private PooledConnection create() throws SQLException {
+        totalCount.incrementAndGet();
+        Connection conn;
+        try {
+            conn = source.getConnection();
+        } catch (SQLException | RuntimeException ex) {
+            totalCount.decrementAndGet();
+            throw ex;
+        }
+        createdCount.increment();
+        try {
+            return new PooledConnection(conn, conn.getAutoCommit());
+        } catch (SQLException ex) {
+            destroy(new PooledConnection(conn, true));
+            throw ex;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        activeCount.decrementAndGet();
+        try {
+            if (closed || pooled.broken || isExpired(pooled, System.nanoTime())) {
+                destroy(pooled);
+                return;
+            }
+            // uncommitted work is rolled back, so that the next borrower starts a clean transaction
+            Connection conn = pooled.connection;
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+            if (conn.getAutoCommit() != pooled.defaultAutoCommit) {
+                conn.setAutoCommit(pooled.defaultAutoCommit);
+            }
+            conn.clearWarnings();
+            pooled.lastUsedNanos = System.nanoTime();
+            idle.offerFirst(pooled);
+        } catch (SQLException ex) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalCount.decrementAndGet();
+        closedCount.increment();
+        try {
+            pooled.connection.close();
+        } catch (SQLException ex) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to close pooled connection", ex);
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return config.getMaxLifetimeMillis() > 0 && now - pooled.createdNanos > TimeUnit.MILLISECONDS.toNanos(config.getMaxLifetimeMillis());
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    // closes expired connections, then opens connections up to minIdle
+    private void housekeep() {
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        for (var it = idle.descendingIterator(); it.hasNext(); ) {
+            PooledConnection pooled = it.next();
+            boolean evict = isExpired(pooled, now) || (config.getIdleTimeoutMillis() > 0 && now - pooled.lastUsedNanos > idleTimeoutNanos && idle.size() > config.getMinIdle());
+            // a concurrent borrow may have taken it in the meantime
+            if (evict && idle.removeLastOccurrence(pooled)) {
+                destroy(pooled);
+            }
+        }
+        while (!closed && idle.size() < config.getMinIdle() && totalCount.get() < config.getMaxSize() && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = create();
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerLast(pooled);
+            } catch (SQLException | RuntimeException ex) {
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to open pooled connection", ex);
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private class PooledConnection {
+
+        private final Connection connection;
+        private final boolean defaultAutoCommit;
+        private final long createdNanos = System.nanoTime();
+        private volatile long lastUsedNanos = createdNanos;
+        // set when the connection failed with a connection exception, so that it is not returned to the pool
+        private volatile boolean broken;
+
+        private PooledConnection(Connection connection, boolean defaultAutoCommit) {
+            this.connection = connection;
+            this.defaultAutoCommit = defaultAutoCommit;
+        }
+
+        private Connection borrow() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handle());
+        }
+
+        // SQL state class 08 reports a connection exception
+        private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                if (ex.getCause() instanceof SQLException sqlException && sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("08")) {
+                    broken = true;
+                }
+                throw ex.getCause();
+            }
+        }
+
+        // one per borrow, so that a closed proxy cannot reach a connection borrowed again by someone else
+        private class Handle implements InvocationHandler {
+
+            private final AtomicBoolean closed = new AtomicBoolean();
+            // statements left open by the borrower are closed when the connection is returned
+            private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            closeStatements();
+                            release(PooledConnection.this);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed.get() || connection.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled " + connection;
+                    }
+                    default -> {
+                        if (closed.get()) {
+                            throw new SQLException("Connection is closed");
+                        }
+                    }
+                }
+                Object ret = PooledConnection.this.invoke(connection, method, args);
+                // result sets are not wrapped, to keep row reads direct
+                if (ret instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    statements.add(statement);
+                    return Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{method.getReturnType()}, new StatementHandle(proxy, statement));
+                }
+                return ret;
+            }
+
+            private void closeStatements() {
+                for (var statement : statements) {
+                    try {
+                        statement.close();
+                    } catch (SQLException ex) {
+                        LOGGER.log(System.Logger.Level.WARNING, "Failed to close pooled statement", ex);
+                    }
+                }
+                statements.clear();
+            }
+
+            private class StatementHandle implements InvocationHandler {
+
+                private final Object connectionProxy;
+                private final Statement statement;
+
+                private StatementHandle(Object connectionProxy, Statement statement) {
+                    this.connectionProxy = connectionProxy;
+                    this.statement = statement;
+                }
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            statements.remove(statement);
+                            statement.close();
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return closed.get() || statement.isClosed();
+                        }
+                        case "getConnection" -> {
+                            return connectionProxy;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled " + statement;
+                        }
+                        default -> {
+                            if (closed.get()) {
+                                throw new SQLException("Statement is closed");
+                            }
+                        }
+                    }
+                    return PooledConnection.this.invoke(statement, method, args);
+                }
+
+            }
+
+        }
+
+    }
+
+}
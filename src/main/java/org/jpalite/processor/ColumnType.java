@@ -0,0 +1,63 @@
+package org.jpalite.processor;
+
+import org.jpalite.processor.column.*;
+import org.jpalite.processor.parameter.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// field types mapped to columns, keyed by type name so that generated mappers look them up from source types
+public enum ColumnType {
+
+    STRING(StringProcessor::new, StringBinder::new, "java.lang.String"),
+    SHORT(ShortProcessor::new, ShortBinder::new, "short", "java.lang.Short"),
+    INTEGER(IntegerProcessor::new, IntegerBinder::new, "int", "java.lang.Integer"),
+    LONG(LongProcessor::new, LongBinder::new, "long", "java.lang.Long"),
+    FLOAT(FloatProcessor::new, FloatBinder::new, "float", "java.lang.Float"),
+    DOUBLE(DoubleProcessor::new, DoubleBinder::new, "double", "java.lang.Double"),
+    BIG_DECIMAL(BigDecimalProcessor::new, BigDecimalBinder::new, "java.math.BigDecimal"),
+    DATE(DateProcessor::new, DateBinder::new, "java.util.Date"),
+    BYTES(BytesProcessor::new, BytesBinder::new, "byte[]"),
+    BLOB(BlobProcessor::new, BlobBinder::new, "java.sql.Blob"),
+    CLOB(ClobProcessor::new, ClobBinder::new, "java.sql.Clob"),
+    BINARY_STREAM(BinaryStreamProcessor::new, BinaryStreamBinder::new, "java.io.InputStream"),
+    CHARACTER_STREAM(CharacterStreamProcessor::new, CharacterStreamBinder::new, "java.io.Reader"),
+    SIZED_INPUT_STREAM(SizedInputStreamProcessor::new, SizedInputStreamBinder::new, "org.jpalite.dto.SizedInputStream"),
+    SIZED_READER(SizedReaderProcessor::new, SizedReaderBinder::new, "org.jpalite.dto.SizedReader"),
+    OBJECT(ObjectProcessor::new, ObjectBinder::new, "java.lang.Object");
+
+    private static final Map<String, ColumnType> TYPES_BY_NAME = new HashMap<>();
+
+    static {
+        for (var type : values()) {
+            for (var typeName : type.typeNames) {
+                TYPES_BY_NAME.put(typeName, type);
+            }
+        }
+    }
+
+    private final Supplier<ColumnProcessor<?>> processor;
+    private final Supplier<ParameterBinder<?>> binder;
+    private final String[] typeNames;
+
+    ColumnType(Supplier<ColumnProcessor<?>> processor, Supplier<ParameterBinder<?>> binder, String... typeNames) {
+        this.processor = processor;
+        this.binder = binder;
+        this.typeNames = typeNames;
+    }
+
+    // null for unsupported types
+    public static ColumnType of(String typeName) {
+        return TYPES_BY_NAME.get(typeName);
+    }
+
+    public ColumnProcessor<?> createProcessor() {
+        return processor.get();
+    }
+
+    public ParameterBinder<?> createBinder() {
+        return binder.get();
+    }
+
+}
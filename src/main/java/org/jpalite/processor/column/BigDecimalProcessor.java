@@ -8,8 +8,7 @@ public class BigDecimalProcessor implements ColumnProcessor<BigDecimal> {
 
     @Override
     public BigDecimal process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getBigDecimal(columnIndex);
+        return rs.getBigDecimal(columnIndex);
     }
 
 }
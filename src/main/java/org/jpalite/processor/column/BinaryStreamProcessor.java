@@ -0,0 +1,15 @@
+package org.jpalite.processor.column;
+
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// only valid while the row is current
+public class BinaryStreamProcessor implements ColumnProcessor<InputStream> {
+
+    @Override
+    public InputStream process(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getBinaryStream(columnIndex);
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.jpalite.processor.column;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class BlobProcessor implements ColumnProcessor<Blob> {
+
+    @Override
+    public Blob process(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getBlob(columnIndex);
+    }
+
+}
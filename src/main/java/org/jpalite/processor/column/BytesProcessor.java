@@ -0,0 +1,13 @@
+package org.jpalite.processor.column;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class BytesProcessor implements ColumnProcessor<byte[]> {
+
+    @Override
+    public byte[] process(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getBytes(columnIndex);
+    }
+
+}
@@ -0,0 +1,15 @@
+package org.jpalite.processor.column;
+
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// the reader is only valid while the row is current, as in BinaryStreamProcessor
+public class CharacterStreamProcessor implements ColumnProcessor<Reader> {
+
+    @Override
+    public Reader process(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getCharacterStream(columnIndex);
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.jpalite.processor.column;
+
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ClobProcessor implements ColumnProcessor<Clob> {
+
+    @Override
+    public Clob process(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getClob(columnIndex);
+    }
+
+}
@@ -1,22 +1,30 @@
 package org.jpalite.processor.column;
 
+import org.jpalite.processor.ColumnType;
+
+import java.io.InputStream;
+import java.io.Reader;
 import java.sql.SQLException;
 
 public class ColumnProcessorFactory {
 
+    // the classes of create, read from a single column as scalars rather than mapped as beans
+    public static boolean isSupported(Class<?> clazz) {
+        return ColumnType.of(clazz.getTypeName()) != null;
+    }
+
+    // streams are only valid while their row is current, unlike every other value read by create
+    public static boolean isStream(Class<?> clazz) {
+        return clazz == InputStream.class || clazz == Reader.class;
+    }
+
+    // processors of int, long and double also read the column without boxing, callers checking rs.wasNull() after
     public static <T> ColumnProcessor<?> create(Class<T> clazz) throws SQLException {
-        return switch (clazz.getName()) {
-            case "java.lang.String" -> new StringProcessor();
-            case "short", "java.lang.Short" -> new ShortProcessor();
-            case "int", "java.lang.Integer" -> new IntegerProcessor();
-            case "long", "java.lang.Long" -> new LongProcessor();
-            case "float", "java.lang.Float" -> new FloatProcessor();
-            case "double", "java.lang.Double" -> new DoubleProcessor();
-            case "java.math.BigDecimal" -> new BigDecimalProcessor();
-            case "java.util.Date" -> new DateProcessor();
-            case "java.lang.Object" -> new ObjectProcessor();
-            default -> throw new SQLException(String.format("Unsupported column processor for class %s", clazz.getSimpleName()));
-        };
+        ColumnType type = ColumnType.of(clazz.getTypeName());
+        if (type == null) {
+            throw new SQLException(String.format("Unsupported column processor for class %s", clazz.getSimpleName()));
+        }
+        return type.createProcessor();
     }
 
 }
@@ -3,12 +3,17 @@ package org.jpalite.processor.column;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
-public class DoubleProcessor implements ColumnProcessor<Double> {
+public class DoubleProcessor implements ColumnProcessor<Double>, DoubleColumnProcessor {
 
     @Override
     public Double process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getDouble(columnIndex);
+        double value = rs.getDouble(columnIndex);
+        return rs.wasNull() ? null : value;
+    }
+
+    @Override
+    public double processDouble(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getDouble(columnIndex);
     }
 
 }
@@ -7,8 +7,8 @@ public class FloatProcessor implements ColumnProcessor<Float> {
 
     @Override
     public Float process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getFloat(columnIndex);
+        float value = rs.getFloat(columnIndex);
+        return rs.wasNull() ? null : value;
     }
 
 }
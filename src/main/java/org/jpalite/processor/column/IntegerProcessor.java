@@ -3,12 +3,17 @@ package org.jpalite.processor.column;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
-public class IntegerProcessor implements ColumnProcessor<Integer> {
+public class IntegerProcessor implements ColumnProcessor<Integer>, IntColumnProcessor {
 
     @Override
     public Integer process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getInt(columnIndex);
+        int value = rs.getInt(columnIndex);
+        return rs.wasNull() ? null : value;
+    }
+
+    @Override
+    public int processInt(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getInt(columnIndex);
     }
 
 }
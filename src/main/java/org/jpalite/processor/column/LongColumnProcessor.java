@@ -0,0 +1,11 @@
+package org.jpalite.processor.column;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface LongColumnProcessor {
+
+    long processLong(ResultSet rs, int columnIndex) throws SQLException;
+
+}
@@ -3,12 +3,17 @@ package org.jpalite.processor.column;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
-public class LongProcessor implements ColumnProcessor<Long> {
+public class LongProcessor implements ColumnProcessor<Long>, LongColumnProcessor {
 
     @Override
     public Long process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getLong(columnIndex);
+        long value = rs.getLong(columnIndex);
+        return rs.wasNull() ? null : value;
+    }
+
+    @Override
+    public long processLong(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getLong(columnIndex);
     }
 
 }
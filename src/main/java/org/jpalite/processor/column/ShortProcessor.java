@@ -7,8 +7,8 @@ public class ShortProcessor implements ColumnProcessor<Short> {
 
     @Override
     public Short process(ResultSet rs, int columnIndex) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        return value == null ? null : rs.getShort(columnIndex);
+        short value = rs.getShort(columnIndex);
+        return rs.wasNull() ? null : value;
     }
 
 }
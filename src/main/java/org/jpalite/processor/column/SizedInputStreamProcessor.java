@@ -0,0 +1,18 @@
+package org.jpalite.processor.column;
+
+import org.jpalite.dto.SizedInputStream;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// read through the Blob handle, so that the stream outlives the row as the handle does
+public class SizedInputStreamProcessor implements ColumnProcessor<SizedInputStream> {
+
+    @Override
+    public SizedInputStream process(ResultSet rs, int columnIndex) throws SQLException {
+        Blob blob = rs.getBlob(columnIndex);
+        return blob == null ? null : new SizedInputStream(blob.getBinaryStream(), blob.length());
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.jpalite.processor.column;
+
+import org.jpalite.dto.SizedReader;
+
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class SizedReaderProcessor implements ColumnProcessor<SizedReader> {
+
+    @Override
+    public SizedReader process(ResultSet rs, int columnIndex) throws SQLException {
+        Clob clob = rs.getClob(columnIndex);
+        return clob == null ? null : new SizedReader(clob.getCharacterStream(), clob.length());
+    }
+
+}
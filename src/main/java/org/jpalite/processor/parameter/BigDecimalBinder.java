@@ -0,0 +1,19 @@
+package org.jpalite.processor.parameter;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class BigDecimalBinder implements ParameterBinder<BigDecimal> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, BigDecimal value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.NUMERIC);
+        } else {
+            stmt.setBigDecimal(parameterIndex, value);
+        }
+    }
+
+}
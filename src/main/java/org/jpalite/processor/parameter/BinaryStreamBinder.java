@@ -0,0 +1,20 @@
+package org.jpalite.processor.parameter;
+
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+// without a length, as in SizedInputStream, drivers may buffer the whole stream
+public class BinaryStreamBinder implements ParameterBinder<InputStream> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, InputStream value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.BLOB);
+        } else {
+            stmt.setBinaryStream(parameterIndex, value);
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class BlobBinder implements ParameterBinder<Blob> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Blob value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.BLOB);
+        } else {
+            stmt.setBlob(parameterIndex, value);
+        }
+    }
+
+}
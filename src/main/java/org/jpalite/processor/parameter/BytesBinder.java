@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class BytesBinder implements ParameterBinder<byte[]> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, byte[] value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.VARBINARY);
+        } else {
+            stmt.setBytes(parameterIndex, value);
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.jpalite.processor.parameter;
+
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+// the driver reads the reader while executing the statement and leaves it open, as in BinaryStreamBinder
+public class CharacterStreamBinder implements ParameterBinder<Reader> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Reader value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.CLOB);
+        } else {
+            stmt.setCharacterStream(parameterIndex, value);
+        }
+    }
+
+}
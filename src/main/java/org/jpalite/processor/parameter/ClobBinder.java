@@ -0,0 +1,19 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class ClobBinder implements ParameterBinder<Clob> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Clob value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.CLOB);
+        } else {
+            stmt.setClob(parameterIndex, value);
+        }
+    }
+
+}
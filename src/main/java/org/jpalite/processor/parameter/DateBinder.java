@@ -0,0 +1,20 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+public class DateBinder implements ParameterBinder<Date> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Date value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.TIMESTAMP);
+        } else {
+            stmt.setTimestamp(parameterIndex, value instanceof Timestamp ts ? ts : new Timestamp(value.getTime()));
+        }
+    }
+
+}
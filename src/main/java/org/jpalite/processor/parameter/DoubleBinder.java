@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class DoubleBinder implements ParameterBinder<Double> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Double value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.DOUBLE);
+        } else {
+            stmt.setDouble(parameterIndex, value);
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class FloatBinder implements ParameterBinder<Float> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Float value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.REAL);
+        } else {
+            stmt.setFloat(parameterIndex, value);
+        }
+    }
+
+}
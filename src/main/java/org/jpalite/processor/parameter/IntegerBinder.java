@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class IntegerBinder implements ParameterBinder<Integer> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Integer value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.INTEGER);
+        } else {
+            stmt.setInt(parameterIndex, value);
+        }
+    }
+
+}
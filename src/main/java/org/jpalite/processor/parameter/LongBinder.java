@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class LongBinder implements ParameterBinder<Long> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Long value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.BIGINT);
+        } else {
+            stmt.setLong(parameterIndex, value);
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// leaves the conversion to the driver, null values included, since typed columns may reject a null of type NULL
+public class ObjectBinder implements ParameterBinder<Object> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Object value) throws SQLException {
+        stmt.setObject(parameterIndex, value);
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ParameterBinder<T> {
+
+    void bind(PreparedStatement stmt, int parameterIndex, T value) throws SQLException;
+
+}
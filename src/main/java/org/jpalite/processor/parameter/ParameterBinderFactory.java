@@ -0,0 +1,13 @@
+package org.jpalite.processor.parameter;
+
+import org.jpalite.processor.ColumnType;
+
+public class ParameterBinderFactory {
+
+    // types without a specialized binder are left to the driver
+    public static <T> ParameterBinder<?> create(Class<T> clazz) {
+        ColumnType type = ColumnType.of(clazz.getTypeName());
+        return type == null ? new ObjectBinder() : type.createBinder();
+    }
+
+}
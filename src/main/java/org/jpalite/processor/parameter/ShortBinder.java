@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class ShortBinder implements ParameterBinder<Short> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, Short value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.SMALLINT);
+        } else {
+            stmt.setShort(parameterIndex, value);
+        }
+    }
+
+}
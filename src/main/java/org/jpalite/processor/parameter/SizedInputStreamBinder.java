@@ -0,0 +1,20 @@
+package org.jpalite.processor.parameter;
+
+import org.jpalite.dto.SizedInputStream;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class SizedInputStreamBinder implements ParameterBinder<SizedInputStream> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, SizedInputStream value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.BLOB);
+        } else {
+            stmt.setBinaryStream(parameterIndex, value.stream(), value.length());
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.jpalite.processor.parameter;
+
+import org.jpalite.dto.SizedReader;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class SizedReaderBinder implements ParameterBinder<SizedReader> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, SizedReader value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.CLOB);
+        } else {
+            stmt.setCharacterStream(parameterIndex, value.reader(), value.length());
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.jpalite.processor.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class StringBinder implements ParameterBinder<String> {
+
+    @Override
+    public void bind(PreparedStatement stmt, int parameterIndex, String value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(parameterIndex, Types.VARCHAR);
+        } else {
+            stmt.setString(parameterIndex, value);
+        }
+    }
+
+}
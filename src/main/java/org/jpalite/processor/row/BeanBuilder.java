@@ -0,0 +1,152 @@
+package org.jpalite.processor.row;
+
+import org.jpalite.dto.ColumnMapping;
+import org.jpalite.mapper.EntityMapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// Creates beans from column values that were already read
+public class BeanBuilder<T> {
+
+    private final Class<T> clazz;
+    // field values of the fields without a column, null unless primitive
+    private final Object[] defaultValues;
+    private final String[] columnLabels;
+    private final Class<?>[] columnTypes;
+    // for each column, the index of the field it is mapped to
+    private final int[] fieldIndexes;
+    private final EntityMapper<T> mapper;
+    // (Object[])Object taking the values in field order
+    private final MethodHandle creator;
+    private final Supplier<T> constructor;
+    private final BiConsumer<Object, Object>[] setters;
+
+    @SuppressWarnings("unchecked")
+    private BeanBuilder(BeanMetadata<T> metadata, List<String> columnLabels) throws SQLException {
+        this.clazz = metadata.getBeanClass();
+        this.columnLabels = columnLabels.toArray(String[]::new);
+        this.columnTypes = new Class<?>[columnLabels.size()];
+        this.fieldIndexes = new int[columnLabels.size()];
+        this.mapper = metadata.getMapper();
+        this.constructor = mapper == null ? metadata.getConstructor() : null;
+        this.setters = new BiConsumer[columnLabels.size()];
+
+        int fieldCount;
+        if (mapper != null) {
+            List<ColumnMapping> columnMappings = mapper.getColumnMappings();
+            fieldCount = columnMappings.size();
+            checkColumnCount(fieldCount);
+            for (int i = 0; i < columnLabels.size(); i++) {
+                fieldIndexes[i] = -1;
+                for (int j = 0; j < columnMappings.size() && fieldIndexes[i] < 0; j++) {
+                    if (columnMappings.get(j).getColumnLabel().toLowerCase(Locale.ROOT).equals(columnLabels.get(i).toLowerCase(Locale.ROOT))) {
+                        fieldIndexes[i] = j;
+                        columnTypes[i] = columnMappings.get(j).getFieldType();
+                    }
+                }
+                if (fieldIndexes[i] < 0) {
+                    throw new SQLException(String.format("No suitable field found in class %s to map column %s", clazz.getSimpleName(), columnLabels.get(i)));
+                }
+            }
+        } else {
+            List<Field> beanFields = metadata.getBeanFields();
+            fieldCount = beanFields.size();
+            checkColumnCount(fieldCount);
+            for (int i = 0; i < columnLabels.size(); i++) {
+                Field field = metadata.getFieldForColumn(columnLabels.get(i));
+                fieldIndexes[i] = beanFields.indexOf(field);
+                columnTypes[i] = field.getType();
+                if (metadata.getCreator() == null) {
+                    setters[i] = metadata.getSetter(field);
+                }
+            }
+        }
+        checkDistinctFields(fieldCount);
+        this.defaultValues = mapper != null ? getDefaultValues(mapper.getColumnMappings().stream().map(ColumnMapping::getFieldType).toList())
+                : getDefaultValues(metadata.getBeanFields().stream().<Class<?>>map(Field::getType).toList());
+        this.creator = metadata.getCreator() == null ? null
+                : metadata.getCreator().asSpreader(Object[].class, fieldCount).asType(methodType(Object.class, Object[].class));
+    }
+
+    public static <T> BeanBuilder<T> create(Class<T> clazz, List<String> columnLabels) throws SQLException {
+        return new BeanBuilder<>(BeanProcessorCache.getMetadata(clazz), columnLabels);
+    }
+
+    // field types of the columns, in column order
+    public Class<?>[] getColumnTypes() {
+        return columnTypes.clone();
+    }
+
+    // values are in column order
+    @SuppressWarnings("unchecked")
+    public T build(Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null && columnTypes[i].isPrimitive()) {
+                throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnLabels[i]));
+            }
+        }
+        if (mapper != null || creator != null) {
+            Object[] fieldValues = defaultValues.clone();
+            for (int i = 0; i < values.length; i++) {
+                fieldValues[fieldIndexes[i]] = values[i];
+            }
+            if (mapper != null) {
+                return mapper.create(fieldValues);
+            }
+            try {
+                return (T) creator.invokeExact(fieldValues);
+            } catch (SQLException | RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        }
+
+        if (constructor == null) {
+            throw new SQLException(String.format("No default constructor found in class %s", clazz.getSimpleName()));
+        }
+        T ret = constructor.get();
+        for (int i = 0; i < values.length; i++) {
+            setters[i].accept(ret, values[i]);
+        }
+        return ret;
+    }
+
+    private void checkColumnCount(int fieldCount) throws SQLException {
+        // fewer columns than fields are partial projections
+        if (columnLabels.length > fieldCount) {
+            throw new SQLException(String.format("ResultSet has %d columns but class %s has %d fields", columnLabels.length, clazz.getSimpleName(), fieldCount));
+        }
+    }
+
+    private static Object[] getDefaultValues(List<Class<?>> fieldTypes) {
+        Object[] ret = new Object[fieldTypes.size()];
+        for (int i = 0; i < ret.length; i++) {
+            if (fieldTypes.get(i).isPrimitive()) {
+                ret[i] = Array.get(Array.newInstance(fieldTypes.get(i), 1), 0);
+            }
+        }
+        return ret;
+    }
+
+    private void checkDistinctFields(int fieldCount) throws SQLException {
+        boolean[] mapped = new boolean[fieldCount];
+        for (int i = 0; i < fieldIndexes.length; i++) {
+            if (mapped[fieldIndexes[i]]) {
+                throw new SQLException(String.format("Field of column %s of class %s is mapped by more than one column", columnLabels[i], clazz.getSimpleName()));
+            }
+            mapped[fieldIndexes[i]] = true;
+        }
+    }
+
+}
@@ -0,0 +1,274 @@
+package org.jpalite.processor.row;
+
+import org.jpalite.annotation.Column;
+import org.jpalite.annotation.EntityConstructor;
+import org.jpalite.common.AccessorFactory;
+import org.jpalite.mapper.EntityMapper;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+class BeanMetadata<T> {
+
+    private static final int MAX_SELECT_PROCESSORS = 64;
+
+    private final Class<T> clazz;
+    private final List<Field> beanFields;
+    private final Map<String, Field> fieldsByColumnLabel;
+    private final Map<String, PropertyDescriptor> propertyDescriptorsByName;
+    private final Supplier<T> constructor;
+    // canonical constructor of records, or the @EntityConstructor annotated one, taking the @Column fields in order
+    private final MethodHandle creator;
+    private final EntityMapper<T> mapper;
+    // accessors are shared by all processors of the class, since each one spins a lambda class
+    private final ConcurrentMap<String, Function<Object, Object>> getters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> primitiveSetters = new ConcurrentHashMap<>();
+    // select processors are keyed by the column label signature of the result set
+    private final ConcurrentMap<String, BeanProcessor<T>> selectProcessors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RowProcessor<T>> generatedProcessors = new ConcurrentHashMap<>();
+    private volatile BeanProcessor<T> writeProcessor;
+
+    BeanMetadata(Class<T> clazz) throws SQLException {
+        this.clazz = clazz;
+        this.mapper = findMapper(clazz);
+
+        // generated mappers make introspection unnecessary
+        if (mapper != null) {
+            this.beanFields = null;
+            this.fieldsByColumnLabel = null;
+            this.propertyDescriptorsByName = null;
+            this.constructor = null;
+            this.creator = null;
+            return;
+        }
+
+        this.beanFields = getBeanFields(clazz);
+
+        Map<String, Field> fields = new HashMap<>();
+        for (var field : beanFields) {
+            fields.putIfAbsent(field.getAnnotation(Column.class).name().toLowerCase(Locale.ROOT), field);
+        }
+        this.fieldsByColumnLabel = Collections.unmodifiableMap(fields);
+
+        Map<String, PropertyDescriptor> descriptors = new HashMap<>();
+        for (var propertyDescriptor : getBeanPropertyDescriptors(clazz)) {
+            descriptors.put(propertyDescriptor.getName(), propertyDescriptor);
+        }
+        this.propertyDescriptorsByName = Collections.unmodifiableMap(descriptors);
+
+        Supplier<T> defaultConstructor;
+        try {
+            defaultConstructor = AccessorFactory.createConstructor(clazz);
+        } catch (SQLException ex) {
+            defaultConstructor = null;
+        }
+        this.constructor = defaultConstructor;
+        this.creator = findCreator(clazz, beanFields);
+    }
+
+    Class<T> getBeanClass() {
+        return clazz;
+    }
+
+    EntityMapper<T> getMapper() {
+        return mapper;
+    }
+
+    List<Field> getBeanFields() {
+        return beanFields;
+    }
+
+    Field getFieldForColumn(String columnLabel) throws SQLException {
+        Field ret = fieldsByColumnLabel.get(columnLabel.toLowerCase(Locale.ROOT));
+        if (ret == null) {
+            throw new SQLException(String.format("No suitable field found in class %s to map column %s", clazz.getSimpleName(), columnLabel));
+        }
+        return ret;
+    }
+
+    PropertyDescriptor getPropertyDescriptorForField(Field field) throws SQLException {
+        PropertyDescriptor ret = propertyDescriptorsByName.get(field.getName());
+        if (ret == null || ret.getReadMethod() == null || ret.getWriteMethod() == null) {
+            throw new SQLException(String.format("No suitable accessor methods found for field %s of class %s", field.getName(), clazz.getSimpleName()));
+        }
+        return ret;
+    }
+
+    Supplier<T> getConstructor() {
+        return constructor;
+    }
+
+    MethodHandle getCreator() {
+        return creator;
+    }
+
+    Function<Object, Object> getGetter(Field field) throws SQLException {
+        Function<Object, Object> ret = getters.get(field.getName());
+        if (ret == null) {
+            ret = field.getAnnotation(Column.class).fieldAccess()
+                    ? AccessorFactory.createFieldGetter(field)
+                    : AccessorFactory.createGetter(getReadMethod(field));
+            getters.putIfAbsent(field.getName(), ret);
+        }
+        return ret;
+    }
+
+    BiConsumer<Object, Object> getSetter(Field field) throws SQLException {
+        BiConsumer<Object, Object> ret = setters.get(field.getName());
+        if (ret == null) {
+            ret = field.getAnnotation(Column.class).fieldAccess()
+                    ? AccessorFactory.createFieldSetter(field)
+                    : AccessorFactory.createSetter(getPropertyDescriptorForField(field).getWriteMethod());
+            setters.putIfAbsent(field.getName(), ret);
+        }
+        return ret;
+    }
+
+    // ObjIntConsumer, ObjLongConsumer or ObjDoubleConsumer for int, long and double fields, null for other types
+    Object getPrimitiveSetter(Field field) throws SQLException {
+        Object ret = primitiveSetters.get(field.getName());
+        if (ret == null) {
+            ret = switch (field.getType().getName()) {
+                case "int" -> AccessorFactory.createIntSetter(getSetterHandle(field));
+                case "long" -> AccessorFactory.createLongSetter(getSetterHandle(field));
+                case "double" -> AccessorFactory.createDoubleSetter(getSetterHandle(field));
+                default -> null;
+            };
+            if (ret != null) {
+                primitiveSetters.putIfAbsent(field.getName(), ret);
+            }
+        }
+        return ret;
+    }
+
+    MethodHandle getSetterHandle(Field field) throws SQLException {
+        return field.getAnnotation(Column.class).fieldAccess()
+                ? AccessorFactory.createFieldSetterHandle(field)
+                : AccessorFactory.createSetterHandle(getPropertyDescriptorForField(field).getWriteMethod());
+    }
+
+    MethodHandle getConstructorHandle() throws SQLException {
+        return AccessorFactory.createConstructorHandle(clazz);
+    }
+
+    BeanProcessor<T> getSelectProcessor(String signature) {
+        return selectProcessors.get(signature);
+    }
+
+    void putSelectProcessor(String signature, BeanProcessor<T> processor) {
+        putBounded(selectProcessors, signature, processor);
+    }
+
+    RowProcessor<T> getGeneratedProcessor(String signature) {
+        return generatedProcessors.get(signature);
+    }
+
+    void putGeneratedProcessor(String signature, RowProcessor<T> processor) {
+        putBounded(generatedProcessors, signature, processor);
+    }
+
+    BeanProcessor<T> getWriteProcessor() {
+        return writeProcessor;
+    }
+
+    void setWriteProcessor(BeanProcessor<T> processor) {
+        this.writeProcessor = processor;
+    }
+
+    private static <V> void putBounded(ConcurrentMap<String, V> processors, String signature, V processor) {
+        // evict an arbitrary entry rather than growing without bound on ad-hoc projections
+        if (processors.size() >= MAX_SELECT_PROCESSORS) {
+            Iterator<String> it = processors.keySet().iterator();
+            if (it.hasNext()) {
+                processors.remove(it.next());
+            }
+        }
+        processors.putIfAbsent(signature, processor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> EntityMapper<T> findMapper(Class<T> clazz) {
+        try {
+            Class<?> mapperClass = Class.forName(EntityMapper.getMapperName(clazz), true, clazz.getClassLoader());
+            if (EntityMapper.class.isAssignableFrom(mapperClass)) {
+                EntityMapper<T> ret = (EntityMapper<T>) mapperClass.getDeclaredConstructor().newInstance();
+                return ret.getBeanClass() == clazz ? ret : null;
+            }
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            // no generated mapper, or one that cannot be loaded: fall back to introspection
+        }
+        return null;
+    }
+
+    // classes materialized through a constructor only need read methods, record components are read by their accessor
+    private Method getReadMethod(Field field) throws SQLException {
+        if (clazz.isRecord()) {
+            for (var recordComponent : clazz.getRecordComponents()) {
+                if (recordComponent.getName().equals(field.getName())) {
+                    return recordComponent.getAccessor();
+                }
+            }
+        }
+        if (creator != null) {
+            PropertyDescriptor ret = propertyDescriptorsByName.get(field.getName());
+            if (ret == null || ret.getReadMethod() == null) {
+                throw new SQLException(String.format("No suitable accessor methods found for field %s of class %s", field.getName(), clazz.getSimpleName()));
+            }
+            return ret.getReadMethod();
+        }
+        return getPropertyDescriptorForField(field).getReadMethod();
+    }
+
+    private static MethodHandle findCreator(Class<?> clazz, List<Field> beanFields) throws SQLException {
+        Class<?>[] fieldTypes = beanFields.stream().map(Field::getType).toArray(Class<?>[]::new);
+        if (clazz.isRecord()) {
+            Class<?>[] componentTypes = Arrays.stream(clazz.getRecordComponents()).map(RecordComponent::getType).toArray(Class<?>[]::new);
+            if (!Arrays.equals(componentTypes, fieldTypes)) {
+                throw new SQLException(String.format("All components of record %s must be @Column annotated", clazz.getSimpleName()));
+            }
+            return AccessorFactory.createConstructorHandle(clazz, componentTypes);
+        }
+        for (var constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(EntityConstructor.class)) {
+                if (!Arrays.equals(constructor.getParameterTypes(), fieldTypes)) {
+                    throw new SQLException(String.format("@EntityConstructor of class %s must take the @Column fields in declaration order", clazz.getSimpleName()));
+                }
+                return AccessorFactory.createConstructorHandle(clazz, fieldTypes);
+            }
+        }
+        return null;
+    }
+
+    // reflection/introspection utility methods
+    private static List<Field> getBeanFields(Class<?> clazz) throws SQLException {
+        List<Field> ret = Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.isAnnotationPresent(Column.class)).toList();
+        if (ret.isEmpty()) {
+            throw new SQLException(String.format("Bean class %s has no @Column annotated fields", clazz.getSimpleName()));
+        }
+        return ret;
+    }
+
+    private static List<PropertyDescriptor> getBeanPropertyDescriptors(Class<?> clazz) throws SQLException {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
+            return Arrays.asList(beanInfo.getPropertyDescriptors());
+        } catch (IntrospectionException ex) {
+            throw new SQLException("Introspection of " + clazz.getSimpleName() + " class failed", ex);
+        }
+    }
+
+}
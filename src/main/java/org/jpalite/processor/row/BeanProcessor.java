@@ -4,47 +4,133 @@ import org.jpalite.annotation.Column;
 import org.jpalite.annotation.Id;
 import org.jpalite.annotation.Table;
 import org.jpalite.common.StatementUtils;
+import org.jpalite.dialect.Dialect;
 import org.jpalite.dto.ColumnMapping;
+import org.jpalite.mapper.EntityMapper;
+import org.jpalite.processor.column.ColumnProcessor;
 import org.jpalite.processor.column.ColumnProcessorFactory;
+import org.jpalite.processor.column.DoubleColumnProcessor;
+import org.jpalite.processor.column.IntColumnProcessor;
+import org.jpalite.processor.column.LongColumnProcessor;
+import org.jpalite.processor.parameter.ParameterBinder;
+import org.jpalite.processor.parameter.ParameterBinderFactory;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class BeanProcessor<T> implements RowProcessor<T> {
 
+    // statement shapes cached per map, further shapes are generated on every call
+    private static final int MAX_CACHED_SHAPES = 16;
+
     private final Class<T> clazz;
+    private final String tableName;
+    private final Supplier<T> constructor;
     private final List<ColumnMapping> columnMappings;
     private final List<ColumnMapping> idColumnsMappings;
     private final List<ColumnMapping> dataColumnsMappings;
+    // binder of each column, in the order of the insert parameters, for the statements bound column by column
+    private final List<ParameterBinder<Object>> parameterBinders;
+    private final String insertStatement;
+    private final String updateStatement;
+    private final String deleteStatement;
+    private final String selectByIdStatement;
+    private final String selectLazyStatement;
+    // multi-row insert statements by number of rows, usually the full size group and a few tails
+    private final Map<Integer, String> multiRowInsertStatements = new ConcurrentHashMap<>();
+    // select statements by number of ids in the IN list, one per padded chunk size
+    private final Map<Integer, String> selectByIdsStatements = new ConcurrentHashMap<>();
+    // partial update statements by set of updated columns, up to 2^n shapes so only the first ones are cached
+    private final Map<BitSet, String> partialUpdateStatements = new ConcurrentHashMap<>();
+    // upsert statements by dialect class, dialects being stateless; usually a single one
+    private final Map<Class<?>, String> upsertStatements = new ConcurrentHashMap<>();
+    // set when a compile time generated mapper is available for the bean class
+    private final EntityMapper<T> mapper;
+    private final int[] columnIndexes;
+    // one reader per column of the select layout, reading and assigning primitive fields without boxing
+    private final ColumnReader[] columnReaders;
+    // (ResultSet)Object reading every column and invoking the entity constructor once, set for records and immutable entities
+    private final MethodHandle creator;
+    // set when a selected column is read as an InputStream or Reader
+    private final boolean streaming;
 
     public BeanProcessor(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
-        this.clazz = clazz;
+        this(getMetadata(clazz, resultSetMetaData), resultSetMetaData);
+    }
 
-        if (resultSetMetaData == null && !clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLException(String.format("Bean class %s must be @Table annotated", clazz.getSimpleName()));
+    BeanProcessor(BeanMetadata<T> metadata, ResultSetMetaData resultSetMetaData) throws SQLException {
+        this.clazz = metadata.getBeanClass();
+        this.constructor = metadata.getConstructor();
+        this.mapper = metadata.getMapper();
+
+        if (mapper != null) {
+            List<ColumnMapping> mapperColumnMappings = mapper.getColumnMappings();
+            if (resultSetMetaData != null) {
+                this.tableName = null;
+                this.columnMappings = null;
+                this.columnIndexes = getColumnIndexes(mapperColumnMappings, resultSetMetaData);
+                this.streaming = IntStream.range(0, columnIndexes.length)
+                        .anyMatch(i -> columnIndexes[i] > 0 && ColumnProcessorFactory.isStream(mapperColumnMappings.get(i).getFieldType()));
+                idColumnsMappings = null;
+                dataColumnsMappings = null;
+                parameterBinders = null;
+                insertStatement = null;
+                updateStatement = null;
+                deleteStatement = null;
+                selectByIdStatement = null;
+                selectLazyStatement = null;
+            } else {
+                this.tableName = clazz.getAnnotation(Table.class).name();
+                this.columnMappings = mapperColumnMappings;
+                this.columnIndexes = null;
+                this.streaming = false;
+                idColumnsMappings = columnMappings.stream().filter(ColumnMapping::isId).toList();
+                dataColumnsMappings = columnMappings.stream().filter(i -> !i.isId()).toList();
+                parameterBinders = columnMappings.stream().map(i -> getParameterBinder(i.getFieldType())).toList();
+                insertStatement = mapper.getInsertStatement();
+                updateStatement = mapper.getUpdateStatement();
+                deleteStatement = mapper.getDeleteStatement();
+                checkLazyColumns(clazz, columnMappings);
+                selectByIdStatement = createSelectStatement(false, createIdCondition());
+                selectLazyStatement = createSelectStatement(true, createIdCondition());
+            }
+            this.columnReaders = null;
+            this.creator = null;
+            return;
         }
+        this.columnIndexes = null;
 
         // Field is used to get annotations via reflection
-        List<Field> beanFields = getBeanFields(clazz);
-        // PropertyDescriptor is used to get references to accessor methods
-        List<PropertyDescriptor> propertyDescriptors = getBeanPropertyDescriptors(clazz);
+        List<Field> beanFields = metadata.getBeanFields();
 
         // if we have a result set, we are processing a select query, and resultSetMetaData leads the mapping
         if (resultSetMetaData != null) {
+            this.tableName = null;
             this.columnMappings = new ArrayList<>(resultSetMetaData.getColumnCount());
+            this.columnReaders = new ColumnReader[resultSetMetaData.getColumnCount()];
 
-            if (resultSetMetaData.getColumnCount() != beanFields.size()) {
+            // partial projections select a subset of the fields, the others are left unset
+            if (resultSetMetaData.getColumnCount() > beanFields.size()) {
                 throw new SQLException(String.format("ResultSet has %d columns but class %s has %d fields", resultSetMetaData.getColumnCount(), clazz.getSimpleName(), beanFields.size()));
             }
 
@@ -53,22 +139,37 @@ public class BeanProcessor<T> implements RowProcessor<T> {
                 columnMapping.setColumnIndex(i + 1);
                 columnMapping.setColumnLabel(resultSetMetaData.getColumnLabel(i + 1));
 
-                Field field = getFieldForColumn(beanFields, columnMapping.getColumnLabel());
+                Field field = metadata.getFieldForColumn(columnMapping.getColumnLabel());
                 columnMapping.setFieldName(field.getName());
+                columnMapping.setFieldType(field.getType());
                 columnMapping.setPrimitive(field.getType().isPrimitive());
                 columnMapping.setColumnProcessor(ColumnProcessorFactory.create(field.getType()));
-
-                PropertyDescriptor propertyDescriptor = getPropertyDescriptorForField(propertyDescriptors, field);
-                columnMapping.setWriteMethod(propertyDescriptor.getWriteMethod());
-
                 columnMappings.add(columnMapping);
+
+                // constructor materialized classes have no setters, their fields are passed to the constructor at once
+                if (metadata.getCreator() == null) {
+                    columnMapping.setSetter(metadata.getSetter(field));
+                    columnReaders[i] = createColumnReader(columnMapping, metadata.getPrimitiveSetter(field));
+                }
             }
+            this.creator = metadata.getCreator() == null ? null : GeneratedRowProcessor.createCreator(metadata, columnMappings);
+            this.streaming = columnMappings.stream().anyMatch(i -> ColumnProcessorFactory.isStream(i.getFieldType()));
             idColumnsMappings = null;
             dataColumnsMappings = null;
+            parameterBinders = null;
+            insertStatement = null;
+            updateStatement = null;
+            deleteStatement = null;
+            selectByIdStatement = null;
+            selectLazyStatement = null;
         }
         // else we are inserting or updating, and bean leads the mapping
         else {
+            this.tableName = clazz.getAnnotation(Table.class).name();
             this.columnMappings = new ArrayList<>(beanFields.size());
+            this.columnReaders = null;
+            this.creator = null;
+            this.streaming = false;
 
             for (int i = 0; i < beanFields.size(); i++) {
                 ColumnMapping columnMapping = new ColumnMapping();
@@ -77,52 +178,129 @@ public class BeanProcessor<T> implements RowProcessor<T> {
                 Field field = beanFields.get(i);
                 columnMapping.setColumnLabel(field.getAnnotation(Column.class).name());
                 columnMapping.setFieldName(field.getName());
+                columnMapping.setFieldType(field.getType());
                 columnMapping.setId(field.isAnnotationPresent(Id.class));
+                columnMapping.setLazy(field.getAnnotation(Column.class).lazy());
 
-                PropertyDescriptor propertyDescriptor = getPropertyDescriptorForField(propertyDescriptors, field);
-                columnMapping.setReadMethod(propertyDescriptor.getReadMethod());
+                columnMapping.setGetter(metadata.getGetter(field));
+                columnMapping.setParameterBinder(getParameterBinder(field.getType()));
 
                 columnMappings.add(columnMapping);
             }
             idColumnsMappings = columnMappings.stream().filter(ColumnMapping::isId).toList();
             dataColumnsMappings = columnMappings.stream().filter(i -> !i.isId()).toList();
+            parameterBinders = columnMappings.stream().map(ColumnMapping::getParameterBinder).toList();
+            checkLazyColumns(clazz, columnMappings);
+
+            // statements are generated once, since write processors are cached and reused across calls
+            insertStatement = createInsertStatement(1);
+            updateStatement = idColumnsMappings.isEmpty() || dataColumnsMappings.isEmpty() ? null : "UPDATE "
+                    + tableName
+                    + " SET "
+                    + dataColumnsMappings.stream().map(i -> i.getColumnLabel() + " = ?").collect(Collectors.joining(", "))
+                    + " WHERE "
+                    + createIdCondition();
+            deleteStatement = idColumnsMappings.isEmpty() ? null : "DELETE FROM "
+                    + tableName
+                    + " WHERE "
+                    + createIdCondition();
+            selectByIdStatement = createSelectStatement(false, createIdCondition());
+            selectLazyStatement = createSelectStatement(true, createIdCondition());
         }
     }
 
     @Override
     public T process(ResultSet rs) throws SQLException {
-        T ret;
-        try {
-            ret = clazz.getDeclaredConstructor().newInstance();
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException ex) {
-            throw new SQLException(String.format("No default constructor found in class %s", clazz.getSimpleName()), ex);
-        }
+        return process(rs, null);
+    }
 
-        for (var columnMapping : columnMappings) {
-            Object value = columnMapping.getColumnProcessor().process(rs, columnMapping.getColumnIndex());
-            if (columnMapping.isPrimitive() && value == null) {
-                throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnMapping.getColumnLabel()));
+    @Override
+    @SuppressWarnings("unchecked")
+    public T process(ResultSet rs, T instance) throws SQLException {
+        if (mapper != null) {
+            return instance == null ? mapper.process(rs, columnIndexes) : mapper.populate(instance, rs, columnIndexes);
+        }
+        // immutable instances cannot be reused, a new one is always created
+        if (creator != null) {
+            try {
+                return (T) creator.invokeExact(rs);
+            } catch (SQLException | RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
             }
-            invokeWrapper(columnMapping.getWriteMethod(), ret, value);
+        }
+        T ret = instance;
+        if (ret == null) {
+            if (constructor == null) {
+                throw new SQLException(String.format("No default constructor found in class %s", clazz.getSimpleName()));
+            }
+            ret = constructor.get();
+        }
+
+        for (var columnReader : columnReaders) {
+            columnReader.read(rs, ret);
         }
         return ret;
     }
 
+    List<ColumnMapping> getColumnMappings() {
+        return columnMappings;
+    }
+
+    boolean isStreaming() {
+        return streaming;
+    }
+
     public String generateInsertStatement() {
-        return "INSERT INTO " + clazz.getAnnotation(Table.class).name()
+        return insertStatement;
+    }
+
+    public String generateInsertStatement(int rows) {
+        if (rows == 1) {
+            return insertStatement;
+        }
+        return getCached(multiRowInsertStatements, rows, this::createInsertStatement);
+    }
+
+    private String createInsertStatement(int rows) {
+        String values = "(" + String.join(", ", Collections.nCopies(columnMappings.size(), "?")) + ")";
+        return "INSERT INTO " + tableName
                 + " ("
                 + columnMappings.stream().map(ColumnMapping::getColumnLabel).collect(Collectors.joining(", "))
-                + ") VALUES ("
-                + String.join(", ", Collections.nCopies(columnMappings.size(), "?"))
-                + ")";
+                + ") VALUES "
+                + String.join(", ", Collections.nCopies(rows, values));
+    }
+
+    // keys must not be modified once passed
+    private static <K> String getCached(Map<K, String> statements, K key, Function<K, String> generator) {
+        String ret = statements.get(key);
+        if (ret == null) {
+            ret = generator.apply(key);
+            if (statements.size() < MAX_CACHED_SHAPES) {
+                statements.putIfAbsent(key, ret);
+            }
+        }
+        return ret;
+    }
+
+    public int getInsertParameterCount() {
+        return columnMappings.size();
     }
 
     public void setInsertParameters(PreparedStatement stmt, ParameterMetaData parameterMetaData, Object obj) throws SQLException {
-        List<Object> params = new ArrayList<>(columnMappings.size());
-        for (var columnMapping : columnMappings) {
-            params.add(invokeWrapper(columnMapping.getReadMethod(), obj));
+        StatementUtils.setStatementParameters(stmt, parameterMetaData, getInsertParameters(obj));
+    }
+
+    public Object[] getInsertParameters(Object obj) {
+        if (mapper != null) {
+            return mapper.getInsertParameters(clazz.cast(obj));
+        }
+        Object[] params = new Object[columnMappings.size()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = columnMappings.get(i).getGetter().apply(obj);
         }
-        StatementUtils.setStatementParameters(stmt, parameterMetaData, params.toArray());
+        return params;
     }
 
     public String generateUpdateStatement() throws SQLException {
@@ -132,65 +310,346 @@ public class BeanProcessor<T> implements RowProcessor<T> {
         if (dataColumnsMappings.isEmpty()) {
             throw new SQLException(String.format("Bean class %s has only @Id annotated fields", clazz.getSimpleName()));
         }
-        return "UPDATE "
-                + clazz.getAnnotation(Table.class).name()
-                + " SET "
-                + dataColumnsMappings.stream().map(i -> i.getColumnLabel() + " = ?").collect(Collectors.joining(", "))
-                + " WHERE "
-                + idColumnsMappings.stream().map(i -> i.getColumnLabel() + " = ?").collect(Collectors.joining(" AND "));
+        return updateStatement;
     }
 
     public void setUpdateParameters(PreparedStatement stmt, ParameterMetaData parameterMetaData, Object obj) throws SQLException {
-        List<Object> params = new ArrayList<>(columnMappings.size());
+        StatementUtils.setStatementParameters(stmt, parameterMetaData, getUpdateParameters(obj));
+    }
+
+    public Object[] getUpdateParameters(Object obj) {
+        if (mapper != null) {
+            return mapper.getUpdateParameters(clazz.cast(obj));
+        }
+        Object[] params = new Object[columnMappings.size()];
+        int i = 0;
         for (var cmd : dataColumnsMappings) {
-            params.add(invokeWrapper(cmd.getReadMethod(), obj));
+            params[i++] = cmd.getGetter().apply(obj);
         }
         for (var cmd : idColumnsMappings) {
-            params.add(invokeWrapper(cmd.getReadMethod(), obj));
+            params[i++] = cmd.getGetter().apply(obj);
         }
-        StatementUtils.setStatementParameters(stmt, parameterMetaData, params.toArray());
+        return params;
     }
 
-    // reflection/introspection utility methods
-    private List<Field> getBeanFields(Class<T> clazz) throws SQLException {
-        List<Field> ret = Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.isAnnotationPresent(Column.class)).collect(Collectors.toList());
-        if (ret.isEmpty()) {
-            throw new SQLException(String.format("Bean class %s has no @Column annotated fields", clazz.getSimpleName()));
+    // insert parameter indexes of the changed data columns, all loaded ones when an id differs
+    public BitSet getDirtyColumns(Object[] snapshot, Object[] values, BitSet loadedColumns) {
+        if (snapshot == null) {
+            return getDataColumns(loadedColumns);
+        }
+        BitSet ret = new BitSet(columnMappings.size());
+        for (int i = 0; i < columnMappings.size(); i++) {
+            if (!Objects.deepEquals(snapshot[i], values[i])) {
+                if (columnMappings.get(i).isId()) {
+                    return getDataColumns(loadedColumns);
+                }
+                ret.set(i);
+            }
         }
         return ret;
     }
 
-    private List<PropertyDescriptor> getBeanPropertyDescriptors(Class<T> clazz) throws SQLException {
-        try {
-            BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
-            return Arrays.asList(beanInfo.getPropertyDescriptors());
-        } catch (IntrospectionException ex) {
-            throw new SQLException("Introspection of " + clazz.getSimpleName() + " class failed", ex);
+    // data columns among the loaded ones, or all of them when loadedColumns is null
+    public BitSet getDataColumns(BitSet loadedColumns) {
+        BitSet ret = new BitSet(columnMappings.size());
+        for (int i = 0; i < columnMappings.size(); i++) {
+            ret.set(i, !columnMappings.get(i).isId() && (loadedColumns == null || loadedColumns.get(i)));
         }
+        return ret;
     }
 
-    private Field getFieldForColumn(List<Field> beanFields, String columnLabel) throws SQLException {
-        Field ret = beanFields.stream().filter(f -> f.getAnnotation(Column.class).name().equalsIgnoreCase(columnLabel)).findFirst().orElse(null);
-        if (ret == null) {
-            throw new SQLException(String.format("No suitable field found in class %s to map column %s", beanFields.getFirst().getDeclaringClass().getSimpleName(), columnLabel));
+    // the columns of the result set, as indexes of the insert parameters; null when it has all of them
+    public BitSet getSelectedColumns(ResultSetMetaData resultSetMetaData) throws SQLException {
+        Set<String> columnLabels = new HashSet<>();
+        for (int i = 0; i < resultSetMetaData.getColumnCount(); i++) {
+            columnLabels.add(resultSetMetaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT));
+        }
+        BitSet ret = new BitSet(columnMappings.size());
+        for (int i = 0; i < columnMappings.size(); i++) {
+            ret.set(i, columnLabels.contains(columnMappings.get(i).getColumnLabel().toLowerCase(Locale.ROOT)));
+        }
+        return ret.cardinality() == columnMappings.size() ? null : ret;
+    }
+
+    // the columns read by id, which leaves the lazy ones out; null when there are none
+    public BitSet getSelectedByIdColumns() {
+        if (!hasLazyColumns()) {
+            return null;
         }
+        BitSet ret = getLazyColumns();
+        ret.flip(0, columnMappings.size());
         return ret;
     }
 
-    private PropertyDescriptor getPropertyDescriptorForField(List<PropertyDescriptor> propertyDescriptors, Field field) throws SQLException {
-        PropertyDescriptor ret = propertyDescriptors.stream().filter(pr -> pr.getName().equals(field.getName())).findFirst().orElse(null);
-        if (ret == null || ret.getReadMethod() == null || ret.getWriteMethod() == null) {
-            throw new SQLException(String.format("No suitable accessor methods found for field %s of class %s", field.getName(), field.getDeclaringClass().getSimpleName()));
+    // the lazy columns, as indexes of the insert parameters
+    public BitSet getLazyColumns() {
+        BitSet ret = new BitSet(columnMappings.size());
+        for (int i = 0; i < columnMappings.size(); i++) {
+            ret.set(i, columnMappings.get(i).isLazy());
         }
         return ret;
     }
 
-    private Object invokeWrapper(Method method, Object obj, Object... args) throws SQLException {
-        try {
-            return method.invoke(obj, args);
-        } catch (IllegalAccessException | InvocationTargetException ex) {
-            throw new SQLException(String.format("Reflection error invoking method %s", method.toGenericString()), ex);
+    // updates the given data columns only, bound with bindUpdateParameters(stmt, values, columns)
+    public String generateUpdateStatement(BitSet columns) throws SQLException {
+        generateUpdateStatement();
+        return getCached(partialUpdateStatements, (BitSet) columns.clone(), this::createUpdateStatement);
+    }
+
+    private String createUpdateStatement(BitSet columns) {
+        return "UPDATE " + tableName
+                + " SET "
+                + columns.stream().mapToObj(i -> columnMappings.get(i).getColumnLabel() + " = ?").collect(Collectors.joining(", "))
+                + " WHERE "
+                + createIdCondition();
+    }
+
+    // values are the insert parameters
+    public void bindUpdateParameters(PreparedStatement stmt, Object[] values, BitSet columns) throws SQLException {
+        int i = 0;
+        for (int column = columns.nextSetBit(0); column >= 0; column = columns.nextSetBit(column + 1)) {
+            parameterBinders.get(column).bind(stmt, ++i, values[column]);
+        }
+        for (int column = 0; column < columnMappings.size(); column++) {
+            if (columnMappings.get(column).isId()) {
+                parameterBinders.get(column).bind(stmt, ++i, values[column]);
+            }
+        }
+    }
+
+    // values are the insert parameters
+    public Object[] getUpdateParameters(Object[] values, BitSet columns) {
+        Object[] params = new Object[columns.cardinality() + idColumnsMappings.size()];
+        int i = 0;
+        for (int column = columns.nextSetBit(0); column >= 0; column = columns.nextSetBit(column + 1)) {
+            params[i++] = values[column];
+        }
+        for (int column = 0; column < columnMappings.size(); column++) {
+            if (columnMappings.get(column).isId()) {
+                params[i++] = values[column];
+            }
+        }
+        return params;
+    }
+
+    // binds the insert parameters of obj after the first offset ones, so that several beans can share a multi-row statement
+    public void bindInsertParameters(PreparedStatement stmt, int offset, Object obj) throws SQLException {
+        if (mapper != null) {
+            mapper.bindInsertParameters(stmt, offset, clazz.cast(obj));
+            return;
+        }
+        for (int i = 0; i < columnMappings.size(); i++) {
+            ColumnMapping columnMapping = columnMappings.get(i);
+            columnMapping.getParameterBinder().bind(stmt, offset + i + 1, columnMapping.getGetter().apply(obj));
+        }
+    }
+
+    public void bindUpdateParameters(PreparedStatement stmt, Object obj) throws SQLException {
+        if (mapper != null) {
+            mapper.bindUpdateParameters(stmt, clazz.cast(obj));
+            return;
+        }
+        int i = 0;
+        for (var cmd : dataColumnsMappings) {
+            cmd.getParameterBinder().bind(stmt, ++i, cmd.getGetter().apply(obj));
+        }
+        for (var cmd : idColumnsMappings) {
+            cmd.getParameterBinder().bind(stmt, ++i, cmd.getGetter().apply(obj));
+        }
+    }
+
+    public void bindIdParameters(PreparedStatement stmt, Object obj) throws SQLException {
+        if (mapper != null) {
+            mapper.bindIdParameters(stmt, clazz.cast(obj));
+            return;
+        }
+        int i = 0;
+        for (var cmd : idColumnsMappings) {
+            cmd.getParameterBinder().bind(stmt, ++i, cmd.getGetter().apply(obj));
+        }
+    }
+
+    public String generateDeleteStatement() throws SQLException {
+        if (idColumnsMappings.isEmpty()) {
+            throw new SQLException(String.format("Bean class %s has no @Id annotated fields", clazz.getSimpleName()));
+        }
+        return deleteStatement;
+    }
+
+    public String generateSelectByIdStatement() throws SQLException {
+        if (idColumnsMappings.isEmpty()) {
+            throw new SQLException(String.format("Bean class %s has no @Id annotated fields", clazz.getSimpleName()));
+        }
+        return selectByIdStatement;
+    }
+
+    // selects the beans of several ids, with a single @Id field as col IN (?, ?) and with more as (col1, col2) IN ((?, ?))
+    public String generateSelectByIdsStatement(int ids) throws SQLException {
+        generateSelectByIdStatement();
+        return selectByIdsStatements.computeIfAbsent(ids, k -> {
+            List<String> idLabels = idColumnsMappings.stream().map(ColumnMapping::getColumnLabel).toList();
+            String id = idLabels.size() == 1 ? "?" : "(" + String.join(", ", Collections.nCopies(idLabels.size(), "?")) + ")";
+            return createSelectStatement(false, (idLabels.size() == 1 ? idLabels.getFirst() : "(" + String.join(", ", idLabels) + ")")
+                    + " IN ("
+                    + String.join(", ", Collections.nCopies(k, id))
+                    + ")");
+        });
+    }
+
+    // bound with the insert parameters
+    public String generateUpsertStatement(Dialect dialect) throws SQLException {
+        if (idColumnsMappings.isEmpty()) {
+            throw new SQLException(String.format("Bean class %s has no @Id annotated fields", clazz.getSimpleName()));
+        }
+        return upsertStatements.computeIfAbsent(dialect.getClass(), k -> dialect.generateUpsertStatement(tableName,
+                getColumnLabels(), idColumnsMappings.stream().map(ColumnMapping::getColumnLabel).toList()));
+    }
+
+    public int getIdParameterCount() {
+        return idColumnsMappings.size();
+    }
+
+    public String generateSelectLazyStatement() throws SQLException {
+        generateSelectByIdStatement();
+        if (selectLazyStatement == null) {
+            throw new SQLException(String.format("Bean class %s has no lazy @Column annotated fields", clazz.getSimpleName()));
+        }
+        return selectLazyStatement;
+    }
+
+    public boolean hasLazyColumns() {
+        return selectLazyStatement != null;
+    }
+
+    // labels of the bean columns, in the order of the insert parameters
+    public List<String> getColumnLabels() {
+        return columnMappings.stream().map(ColumnMapping::getColumnLabel).toList();
+    }
+
+    public Object[] getIdParameters(Object obj) {
+        if (mapper != null) {
+            return mapper.getIdParameters(clazz.cast(obj));
+        }
+        Object[] params = new Object[idColumnsMappings.size()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = idColumnsMappings.get(i).getGetter().apply(obj);
+        }
+        return params;
+    }
+
+    private static void checkLazyColumns(Class<?> clazz, List<ColumnMapping> columnMappings) throws SQLException {
+        for (var columnMapping : columnMappings) {
+            if (columnMapping.isLazy() && (columnMapping.isId() || columnMapping.getFieldType().isPrimitive())) {
+                throw new SQLException(String.format("Lazy field %s of class %s cannot be primitive or @Id annotated", columnMapping.getFieldName(), clazz.getSimpleName()));
+            }
+        }
+    }
+
+    // selects the lazy columns only when lazy is true, and the other ones otherwise
+    private String createSelectStatement(boolean lazy, String condition) {
+        List<String> columnLabels = columnMappings.stream().filter(i -> i.isLazy() == lazy).map(ColumnMapping::getColumnLabel).toList();
+        return idColumnsMappings.isEmpty() || columnLabels.isEmpty() ? null : "SELECT "
+                + String.join(", ", columnLabels)
+                + " FROM "
+                + tableName
+                + " WHERE "
+                + condition;
+    }
+
+    private String createIdCondition() {
+        return idColumnsMappings.stream().map(i -> i.getColumnLabel() + " = ?").collect(Collectors.joining(" AND "));
+    }
+
+    // maps each bean field to the index of its result set column, 0 for fields not selected
+    private int[] getColumnIndexes(List<ColumnMapping> mapperColumnMappings, ResultSetMetaData resultSetMetaData) throws SQLException {
+        if (resultSetMetaData.getColumnCount() > mapperColumnMappings.size()) {
+            throw new SQLException(String.format("ResultSet has %d columns but class %s has %d fields", resultSetMetaData.getColumnCount(), clazz.getSimpleName(), mapperColumnMappings.size()));
+        }
+        int[] ret = new int[mapperColumnMappings.size()];
+        for (int i = 0; i < resultSetMetaData.getColumnCount(); i++) {
+            String columnLabel = resultSetMetaData.getColumnLabel(i + 1);
+            int fieldIndex = 0;
+            while (fieldIndex < mapperColumnMappings.size() && !mapperColumnMappings.get(fieldIndex).getColumnLabel().equalsIgnoreCase(columnLabel)) {
+                fieldIndex++;
+            }
+            if (fieldIndex == mapperColumnMappings.size()) {
+                throw new SQLException(String.format("No suitable field found in class %s to map column %s", clazz.getSimpleName(), columnLabel));
+            }
+            ret[fieldIndex] = i + 1;
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ColumnReader createColumnReader(ColumnMapping columnMapping, Object primitiveSetter) {
+        int columnIndex = columnMapping.getColumnIndex();
+        String columnLabel = columnMapping.getColumnLabel();
+        // int, long and double fields are read with the typed getter and checked with wasNull()
+        if (primitiveSetter instanceof ObjIntConsumer<?> setter && columnMapping.getColumnProcessor() instanceof IntColumnProcessor processor) {
+            ObjIntConsumer<Object> intSetter = (ObjIntConsumer<Object>) setter;
+            return (rs, bean) -> {
+                int value = processor.processInt(rs, columnIndex);
+                checkNotNull(rs, columnLabel);
+                intSetter.accept(bean, value);
+            };
+        }
+        if (primitiveSetter instanceof ObjLongConsumer<?> setter && columnMapping.getColumnProcessor() instanceof LongColumnProcessor processor) {
+            ObjLongConsumer<Object> longSetter = (ObjLongConsumer<Object>) setter;
+            return (rs, bean) -> {
+                long value = processor.processLong(rs, columnIndex);
+                checkNotNull(rs, columnLabel);
+                longSetter.accept(bean, value);
+            };
+        }
+        if (primitiveSetter instanceof ObjDoubleConsumer<?> setter && columnMapping.getColumnProcessor() instanceof DoubleColumnProcessor processor) {
+            ObjDoubleConsumer<Object> doubleSetter = (ObjDoubleConsumer<Object>) setter;
+            return (rs, bean) -> {
+                double value = processor.processDouble(rs, columnIndex);
+                checkNotNull(rs, columnLabel);
+                doubleSetter.accept(bean, value);
+            };
+        }
+        ColumnProcessor<?> processor = columnMapping.getColumnProcessor();
+        BiConsumer<Object, Object> setter = columnMapping.getSetter();
+        boolean isPrimitive = columnMapping.isPrimitive();
+        return (rs, bean) -> {
+            Object value = processor.process(rs, columnIndex);
+            if (isPrimitive && value == null) {
+                throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnLabel));
+            }
+            setter.accept(bean, value);
+        };
+    }
+
+    private static void checkNotNull(ResultSet rs, String columnLabel) throws SQLException {
+        if (rs.wasNull()) {
+            throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnLabel));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ParameterBinder<Object> getParameterBinder(Class<?> fieldType) {
+        return (ParameterBinder<Object>) ParameterBinderFactory.create(fieldType);
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        void read(ResultSet rs, Object bean) throws SQLException;
+
+    }
+
+    static void checkTableAnnotation(Class<?> clazz) throws SQLException {
+        if (!clazz.isAnnotationPresent(Table.class)) {
+            throw new SQLException(String.format("Bean class %s must be @Table annotated", clazz.getSimpleName()));
+        }
+    }
+
+    private static <T> BeanMetadata<T> getMetadata(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        if (resultSetMetaData == null) {
+            checkTableAnnotation(clazz);
         }
+        return BeanProcessorCache.getMetadata(clazz);
     }
 
 }
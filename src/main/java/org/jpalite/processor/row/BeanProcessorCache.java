@@ -0,0 +1,102 @@
+package org.jpalite.processor.row;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+public class BeanProcessorCache {
+
+    // ClassValue ties cached metadata to the lifetime of the bean class, so dynamically loaded classes can still be unloaded
+    private static final ClassValue<BeanMetadata<?>> METADATA = new ClassValue<>() {
+        @Override
+        protected BeanMetadata<?> computeValue(Class<?> type) {
+            try {
+                return new BeanMetadata<>(type);
+            } catch (SQLException ex) {
+                throw new MetadataException(ex);
+            }
+        }
+    };
+
+    private BeanProcessorCache() {
+    }
+
+    public static <T> BeanProcessor<T> getSelectProcessor(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        return getSelectProcessor(getMetadata(clazz), getSignature(resultSetMetaData), resultSetMetaData);
+    }
+
+    public static <T> RowProcessor<T> getGeneratedProcessor(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        BeanMetadata<T> metadata = getMetadata(clazz);
+        String signature = getSignature(resultSetMetaData);
+        // mapped and constructor materialized classes are already processed by a single call per row
+        if (metadata.getMapper() != null || metadata.getCreator() != null) {
+            return getSelectProcessor(metadata, signature, resultSetMetaData);
+        }
+        RowProcessor<T> ret = metadata.getGeneratedProcessor(signature);
+        if (ret == null) {
+            // the reflective processor validates the mapping, and is kept as fallback if generation fails
+            BeanProcessor<T> beanProcessor = getSelectProcessor(metadata, signature, resultSetMetaData);
+            try {
+                ret = new GeneratedRowProcessor<>(metadata, beanProcessor.getColumnMappings());
+            } catch (SQLException | RuntimeException ex) {
+                ret = beanProcessor;
+            }
+            metadata.putGeneratedProcessor(signature, ret);
+        }
+        return ret;
+    }
+
+    public static <T> BeanProcessor<T> getWriteProcessor(Class<T> clazz) throws SQLException {
+        BeanProcessor.checkTableAnnotation(clazz);
+        BeanMetadata<T> metadata = getMetadata(clazz);
+        BeanProcessor<T> ret = metadata.getWriteProcessor();
+        if (ret == null) {
+            ret = new BeanProcessor<>(metadata, null);
+            metadata.setWriteProcessor(ret);
+        }
+        return ret;
+    }
+
+    public static void evict(Class<?> clazz) {
+        METADATA.remove(clazz);
+    }
+
+    private static <T> BeanProcessor<T> getSelectProcessor(BeanMetadata<T> metadata, String signature, ResultSetMetaData resultSetMetaData) throws SQLException {
+        BeanProcessor<T> ret = metadata.getSelectProcessor(signature);
+        if (ret == null) {
+            ret = new BeanProcessor<>(metadata, resultSetMetaData);
+            metadata.putSelectProcessor(signature, ret);
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> BeanMetadata<T> getMetadata(Class<T> clazz) throws SQLException {
+        try {
+            return (BeanMetadata<T>) METADATA.get(clazz);
+        } catch (MetadataException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static String getSignature(ResultSetMetaData resultSetMetaData) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < resultSetMetaData.getColumnCount(); i++) {
+            sb.append(resultSetMetaData.getColumnLabel(i + 1)).append('\0');
+        }
+        return sb.toString();
+    }
+
+    private static class MetadataException extends RuntimeException {
+
+        private MetadataException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+
+    }
+
+}
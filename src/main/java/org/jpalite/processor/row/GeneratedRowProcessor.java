@@ -0,0 +1,160 @@
+package org.jpalite.processor.row;
+
+import org.jpalite.dto.ColumnMapping;
+import org.jpalite.processor.column.ColumnProcessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// One composed method handle per column layout, reading and setting every column without boxing
+public class GeneratedRowProcessor<T> implements RowProcessor<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle WAS_NULL;
+    private static final MethodHandle CHECK_NOT_NULL;
+    private static final MethodHandle PROCESS_COLUMN;
+
+    static {
+        try {
+            WAS_NULL = LOOKUP.findVirtual(ResultSet.class, "wasNull", methodType(boolean.class));
+            CHECK_NOT_NULL = LOOKUP.findStatic(GeneratedRowProcessor.class, "checkNotNull", methodType(void.class, ResultSet.class, String.class));
+            PROCESS_COLUMN = LOOKUP.findVirtual(ColumnProcessor.class, "process", methodType(Object.class, ResultSet.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private final MethodHandle mapper;
+    private final MethodHandle populate;
+
+    GeneratedRowProcessor(BeanMetadata<T> metadata, List<ColumnMapping> columnMappings) throws SQLException {
+        Class<T> clazz = metadata.getBeanClass();
+        // (T, ResultSet)void for every mapped column
+        List<MethodHandle> steps = new ArrayList<>(columnMappings.size());
+        for (var columnMapping : columnMappings) {
+            MethodHandle setter = metadata.getSetterHandle(metadata.getFieldForColumn(columnMapping.getColumnLabel()));
+            MethodHandle reader = createReader(columnMapping);
+            steps.add(MethodHandles.filterArguments(setter.asType(methodType(void.class, clazz, reader.type().returnType())), 1, reader));
+        }
+        MethodHandle body = combine(steps, 0, steps.size());
+        // (ResultSet)T, creating the instance, populating it and returning it
+        MethodHandle populateBean = MethodHandles.foldArguments(MethodHandles.dropArguments(MethodHandles.identity(clazz), 1, ResultSet.class), body);
+        MethodHandle constructor = metadata.getConstructorHandle();
+        this.mapper = MethodHandles.foldArguments(populateBean, constructor.asType(methodType(clazz))).asType(methodType(Object.class, ResultSet.class));
+        this.populate = populateBean.asType(methodType(Object.class, Object.class, ResultSet.class));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T process(ResultSet rs) throws SQLException {
+        try {
+            return (T) mapper.invokeExact(rs);
+        } catch (SQLException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T process(ResultSet rs, T instance) throws SQLException {
+        if (instance == null) {
+            return process(rs);
+        }
+        try {
+            return (T) populate.invokeExact((Object) instance, rs);
+        } catch (SQLException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    // (ResultSet)Object reading every column into the matching constructor argument, and invoking the constructor once
+    static MethodHandle createCreator(BeanMetadata<?> metadata, List<ColumnMapping> columnMappings) throws SQLException {
+        List<Field> beanFields = metadata.getBeanFields();
+        MethodHandle[] readers = new MethodHandle[beanFields.size()];
+        for (var columnMapping : columnMappings) {
+            int index = beanFields.indexOf(metadata.getFieldForColumn(columnMapping.getColumnLabel()));
+            if (readers[index] != null) {
+                throw new SQLException(String.format("Field %s of class %s is mapped by more than one column", beanFields.get(index).getName(), metadata.getBeanClass().getSimpleName()));
+            }
+            readers[index] = createReader(columnMapping);
+        }
+        // fields not selected by partial projections get their default value
+        for (int i = 0; i < readers.length; i++) {
+            if (readers[i] == null) {
+                readers[i] = MethodHandles.dropArguments(MethodHandles.zero(beanFields.get(i).getType()), 0, ResultSet.class);
+            }
+        }
+        // (ResultSet, ..., ResultSet)T, then collapsed into a single ResultSet argument
+        MethodHandle ret = MethodHandles.filterArguments(metadata.getCreator(), 0, readers);
+        ret = MethodHandles.permuteArguments(ret, methodType(metadata.getBeanClass(), ResultSet.class), new int[readers.length]);
+        return ret.asType(methodType(Object.class, ResultSet.class));
+    }
+
+    // chains the steps in order as a balanced tree, keeping the nesting depth low enough for the JIT to inline it all
+    private static MethodHandle combine(List<MethodHandle> steps, int from, int to) {
+        if (to - from == 1) {
+            return steps.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return MethodHandles.foldArguments(combine(steps, middle, to), combine(steps, from, middle));
+    }
+
+    private static MethodHandle createReader(ColumnMapping columnMapping) throws SQLException {
+        Class<?> fieldType = columnMapping.getFieldType();
+        Class<?> primitiveType = MethodType.methodType(fieldType).unwrap().returnType();
+        String getterName = switch (primitiveType.getName()) {
+            case "short" -> "getShort";
+            case "int" -> "getInt";
+            case "long" -> "getLong";
+            case "float" -> "getFloat";
+            case "double" -> "getDouble";
+            default -> null;
+        };
+        // non numeric types go through their column processor
+        if (getterName == null) {
+            MethodHandle process = MethodHandles.insertArguments(PROCESS_COLUMN.bindTo(columnMapping.getColumnProcessor()), 1, columnMapping.getColumnIndex());
+            return process.asType(methodType(fieldType, ResultSet.class));
+        }
+
+        MethodHandle getter;
+        try {
+            getter = LOOKUP.findVirtual(ResultSet.class, getterName, methodType(primitiveType, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new SQLException(String.format("Cannot create reader for column %s", columnMapping.getColumnLabel()), ex);
+        }
+        // (ResultSet)primitive
+        getter = MethodHandles.insertArguments(getter, 1, columnMapping.getColumnIndex());
+        // (primitive, ResultSet)fieldType, called right after the getter so that wasNull() refers to this column
+        MethodHandle afterRead;
+        if (fieldType.isPrimitive()) {
+            MethodHandle check = MethodHandles.insertArguments(CHECK_NOT_NULL, 1, columnMapping.getColumnLabel());
+            afterRead = MethodHandles.foldArguments(MethodHandles.dropArguments(MethodHandles.identity(primitiveType), 1, ResultSet.class), 1, check);
+        } else {
+            MethodHandle isNull = MethodHandles.dropArguments(WAS_NULL, 0, primitiveType);
+            MethodHandle nullValue = MethodHandles.dropArguments(MethodHandles.constant(fieldType, null), 0, primitiveType, ResultSet.class);
+            MethodHandle boxedValue = MethodHandles.dropArguments(MethodHandles.identity(primitiveType).asType(methodType(fieldType, primitiveType)), 1, ResultSet.class);
+            afterRead = MethodHandles.guardWithTest(isNull, nullValue, boxedValue);
+        }
+        return MethodHandles.foldArguments(afterRead, getter);
+    }
+
+    private static void checkNotNull(ResultSet rs, String columnLabel) throws SQLException {
+        if (rs.wasNull()) {
+            throw new SQLException(String.format("Cannot assign null value to a primitive type for column %s", columnLabel));
+        }
+    }
+
+}
@@ -7,4 +7,9 @@ public interface RowProcessor<T> {
 
     T process(ResultSet rs) throws SQLException;
 
+    // populates the given instance when the processor supports it, otherwise creates a new one like process(rs)
+    default T process(ResultSet rs, T instance) throws SQLException {
+        return process(rs);
+    }
+
 }
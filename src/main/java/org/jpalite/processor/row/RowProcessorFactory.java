@@ -1,15 +1,33 @@
 package org.jpalite.processor.row;
 
+import org.jpalite.processor.column.ColumnProcessorFactory;
+
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 public class RowProcessorFactory {
 
     public static <T> RowProcessor<T> create(Class<T> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
-        if (resultSetMetaData.getColumnCount() == 1) {
+        return create(clazz, resultSetMetaData, false);
+    }
+
+    public static <T> RowProcessor<T> create(Class<T> clazz, ResultSetMetaData resultSetMetaData, boolean generated) throws SQLException {
+        // single columns are read as scalars for scalar classes only, so that beans can be read from one column too
+        if (resultSetMetaData.getColumnCount() == 1 && ColumnProcessorFactory.isSupported(clazz)) {
             return new ScalarProcessor<>(clazz, resultSetMetaData);
         }
-        return new BeanProcessor<>(clazz, resultSetMetaData);
+        if (generated) {
+            return BeanProcessorCache.getGeneratedProcessor(clazz, resultSetMetaData);
+        }
+        return BeanProcessorCache.getSelectProcessor(clazz, resultSetMetaData);
+    }
+
+    // whether rows are read with InputStream or Reader values, which the driver invalidates once the cursor moves on
+    public static boolean readsStreams(Class<?> clazz, ResultSetMetaData resultSetMetaData) throws SQLException {
+        if (resultSetMetaData.getColumnCount() == 1 && ColumnProcessorFactory.isSupported(clazz)) {
+            return ColumnProcessorFactory.isStream(clazz);
+        }
+        return BeanProcessorCache.getSelectProcessor(clazz, resultSetMetaData).isStreaming();
     }
 
 }
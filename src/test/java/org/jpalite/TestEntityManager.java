@@ -4,17 +4,78 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.h2.jdbcx.JdbcDataSource;
 import org.jpalite.annotation.Column;
 import org.jpalite.annotation.Id;
 import org.jpalite.annotation.Table;
+import org.jpalite.buffer.RowBuffer;
+import org.jpalite.cache.EntityCache;
+import org.jpalite.cache.QueryCache;
+import org.jpalite.columnar.ColumnarResult;
+import org.jpalite.columnar.DoubleVector;
+import org.jpalite.columnar.IntVector;
+import org.jpalite.columnar.LongVector;
+import org.jpalite.columnar.StringVector;
+import org.jpalite.common.UncheckedSQLException;
+import org.jpalite.dialect.H2Dialect;
+import org.jpalite.dialect.MySqlDialect;
+import org.jpalite.dialect.PostgreSqlDialect;
+import org.jpalite.dto.EntityCacheConfig;
+import org.jpalite.dto.PoolConfig;
+import org.jpalite.dto.QueryCacheConfig;
+import org.jpalite.dto.SizedInputStream;
+import org.jpalite.dto.SizedReader;
+import org.jpalite.mapper.EntityMapper;
+import org.jpalite.partition.Partition;
+import org.jpalite.partition.Partitioning;
+import org.jpalite.pool.ConnectionPool;
+import org.jpalite.processor.row.BeanProcessor;
+import org.jpalite.processor.row.BeanProcessorCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Log4j2
 public class TestEntityManager extends TestSession {
@@ -69,6 +130,1056 @@ public class TestEntityManager extends TestSession {
         Assertions.assertEquals(expected, actual);
     }
 
+    @DisplayName("Binding typed parameters")
+    @Test
+    void testBindParameters() throws SQLException {
+        log.info("Binding typed parameters");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, col3 BIGINT, col4 DOUBLE PRECISION, col5 NUMERIC(10,2), col6 TIMESTAMP)");
+        Date date = new Date(1_700_000_000_000L);
+        String sql = "INSERT INTO test_table VALUES (?, ?, ?, ?, ?, ?)";
+        em.execute(conn, sql, 1, "test", 2L, 3.5, new BigDecimal("4.50"), date);
+        em.execute(conn, sql, 2, null, null, null, null, null);
+        em.setMetadataParameterTypes(true);
+        em.execute(conn, sql, 3, "test", 2L, 3.5, new BigDecimal("4.50"), date);
+        conn.commit();
+        Assertions.assertEquals(2, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col2 = ? AND col3 = ? AND col4 = ? AND col5 = ? AND col6 = ?", "test", 2L, 3.5, new BigDecimal("4.50"), date));
+        em.setMetadataParameterTypes(false);
+        Assertions.assertEquals(date, em.getSingleResult(conn, Date.class, "SELECT col6 FROM test_table WHERE col1 = ?", 1));
+        Assertions.assertEquals(1, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col2 IS NULL AND col6 IS NULL"));
+
+        // uncached statements type null values from their parameter metadata
+        List<String> calls = new ArrayList<>();
+        em.execute(recording(calls), "INSERT INTO test_table (col1, col2, col6) VALUES (?, ?, ?)", 4, null, null);
+        Assertions.assertEquals(List.of("INSERT INTO test_table (col1, col2, col6) VALUES (?, ?, ?)",
+                "setNull(2, " + Types.VARCHAR + ")", "setNull(3, " + Types.TIMESTAMP + ")"), calls);
+
+        execute("DROP TABLE test_table");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        TestBean expected = new TestBean(1, null);
+        em.insert(conn, expected);
+        conn.commit();
+        Assertions.assertEquals(expected, em.getSingleResult(conn, TestBean.class, "SELECT * FROM test_table"));
+    }
+
+    @DisplayName("Batch updating and deleting beans")
+    @Test
+    void testBatchUpdateDelete() throws SQLException {
+        log.info("Batch updating and deleting beans");
+        int rowCount = 10_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        List<TestBean> beans = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            beans.add(new TestBean(i + 1, "test"));
+        }
+        em.batchInsert(conn, beans);
+        conn.commit();
+
+        beans.forEach(i -> i.setCol2("updated"));
+        beans.add(new TestBean(rowCount + 1, "missing"));
+        em.getBatchConfig().setMaxRows(3_000);
+        int[] counts = em.batchUpdate(conn, beans);
+        conn.commit();
+        Assertions.assertEquals(rowCount + 1, counts.length);
+        Assertions.assertEquals(rowCount, Arrays.stream(counts).filter(i -> i == 1).count());
+        Assertions.assertEquals(0, counts[rowCount]);
+        Assertions.assertEquals(rowCount, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col2 = ?", "updated"));
+
+        counts = em.batchDelete(conn, beans.subList(0, 100));
+        Assertions.assertTrue(Arrays.stream(counts).allMatch(i -> i == 1));
+        Assertions.assertEquals(1, em.delete(conn, beans.get(100)));
+        Assertions.assertEquals(1, em.deleteById(conn, TestBean.class, 102));
+        Assertions.assertEquals(0, em.deleteById(conn, TestBean.class, 102));
+        conn.commit();
+        Assertions.assertEquals(rowCount - 102, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+    }
+
+    @DisplayName("Caching prepared statements")
+    @Test
+    void testStatementCache() throws SQLException {
+        log.info("Caching prepared statements");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER PRIMARY KEY, col2 TEXT)");
+        em.batchInsert(conn, iterable(IntStream.range(0, 10).mapToObj(i -> new TestBean(i + 1, "test" + i))));
+        conn.commit();
+
+        // uncached lookups are not counted, cached ones miss once and then reuse the statement
+        String lookup = "SELECT * FROM test_table WHERE col1 = ?";
+        em.getSingleResult(conn, TestBean.class, lookup, 1);
+        Assertions.assertEquals(0, em.getStatementCacheHits() + em.getStatementCacheMisses());
+        em.setStatementCacheSize(2);
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(new TestBean(i + 1, "test" + i), em.getSingleResult(conn, TestBean.class, lookup, i + 1));
+        }
+        Assertions.assertEquals(9, em.getStatementCacheHits());
+        Assertions.assertEquals(1, em.getStatementCacheMisses());
+
+        // the least recently used statement is evicted once the cache is full
+        em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col1 > ?", 1);
+        em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col1 < ?", 1);
+        em.getSingleResult(conn, TestBean.class, lookup, 1);
+        Assertions.assertEquals(9, em.getStatementCacheHits());
+        Assertions.assertEquals(4, em.getStatementCacheMisses());
+        em.closeStatements(conn);
+        em.setStatementCacheSize(16);
+
+        // a statement in use by an open iterator is not shared
+        try (ResultIterator<TestBean> it = em.getResultIterator(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 <= ?", 2)) {
+            Assertions.assertEquals(new TestBean(1, "test0"), it.next());
+            Assertions.assertEquals(2, em.getResultList(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 <= ?", 2).size());
+            Assertions.assertEquals(new TestBean(2, "test1"), it.next());
+        }
+        Assertions.assertEquals(1, em.getResultList(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 <= ?", 1).size());
+        Assertions.assertEquals(6, em.getStatementCacheMisses());
+        em.closeStatements(conn);
+
+        // statements of a closed connection are not reused
+        try (Connection other = DriverManager.getConnection("jdbc:h2:mem:test_mem")) {
+            Assertions.assertEquals(1, em.getSingleResult(other, int.class, "SELECT COUNT(*) FROM test_table WHERE col1 = ?", 1));
+        }
+        try (Connection other = DriverManager.getConnection("jdbc:h2:mem:test_mem")) {
+            Assertions.assertEquals(1, em.getSingleResult(other, int.class, "SELECT COUNT(*) FROM test_table WHERE col1 = ?", 1));
+        }
+        Assertions.assertEquals(8, em.getStatementCacheMisses());
+        // caches of connections closed without closeStatements are dropped once another connection is used
+        em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table WHERE col1 = ?", 1);
+        Assertions.assertEquals(1, em.getStatementCacheCount());
+    }
+
+    @DisplayName("Batch inserting in chunks")
+    @Test
+    void testBatchInsertChunks() throws SQLException {
+        log.info("Batch inserting in chunks");
+        int rowCount = 100_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+
+        em.getBatchConfig().setMaxRows(1_000);
+        long count = em.batchInsert(conn, iterable(IntStream.range(0, rowCount).mapToObj(i -> new TestBean(i + 1, "test"))));
+        conn.commit();
+        Assertions.assertEquals(rowCount, count);
+        Assertions.assertEquals(rowCount, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+
+        execute("DELETE FROM test_table");
+        em.getBatchConfig().setMaxRows(0);
+        em.getBatchConfig().setMaxBytes(64 * 1024);
+        count = em.batchInsert(conn, iterable(IntStream.range(0, rowCount).mapToObj(i -> new TestBean(i + 1, "test"))));
+        conn.commit();
+        Assertions.assertEquals(rowCount, count);
+        Assertions.assertEquals(rowCount, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+
+        execute("DELETE FROM test_table");
+        em.getBatchConfig().setMaxRows(50_000);
+        em.getBatchConfig().setMaxBytes(0);
+        em.getBatchConfig().setAdaptive(true);
+        em.getBatchConfig().setTargetLatencyMillis(5);
+        long startTime = System.nanoTime();
+        count = em.batchInsert(conn, iterable(IntStream.range(0, rowCount).mapToObj(i -> new TestBean(i + 1, "test"))));
+        conn.commit();
+        long endTime = System.nanoTime();
+        Assertions.assertEquals(rowCount, count);
+        Assertions.assertEquals(rowCount, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+        log.info("Inserted {} rows with adaptive chunks: {} ms", count, (endTime - startTime) / 1_000_000);
+
+        Assertions.assertEquals(0, em.batchInsert(conn, iterable(Stream.empty())));
+        SQLException ex = Assertions.assertThrows(SQLException.class, () -> em.batchInsert(conn, iterable(Stream.of(new TestBean(1, "test"), null))));
+        Assertions.assertEquals("Bean list contains null objects", ex.getMessage());
+        conn.rollback();
+
+        // collections are validated before the first chunk is executed
+        execute("DELETE FROM test_table");
+        em.getBatchConfig().setAdaptive(false);
+        em.getBatchConfig().setMaxRows(1);
+        Set<Object> mixed = new LinkedHashSet<>(List.of(new TestBean(1, "test"), new TestBean(2, "test"), "wrong"));
+        ex = Assertions.assertThrows(SQLException.class, () -> em.batchInsert(conn, (Iterable<?>) mixed));
+        Assertions.assertEquals("Bean list must contain objects of the same type", ex.getMessage());
+        Assertions.assertEquals(0, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+    }
+
+    @DisplayName("Batch inserting with multi-row statements")
+    @Test
+    void testBatchInsertMultiRow() throws SQLException {
+        log.info("Batch inserting with multi-row statements");
+        int rowCount = 2_001;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(TestBean.class);
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?), (?, ?), (?, ?)", bp.generateInsertStatement(3));
+
+        // groups of 1,000 rows, and a last one of a single row
+        em.getBatchConfig().setMultiRowInsert(true);
+        long count = em.batchInsert(conn, iterable(IntStream.range(0, rowCount).mapToObj(j -> new TestBean(j + 1, "test" + j))));
+        conn.commit();
+        Assertions.assertEquals(rowCount, count);
+        Assertions.assertEquals(rowCount, em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+        Assertions.assertEquals(new TestBean(1, "test0"), em.getSingleResult(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 = ?", 1));
+        Assertions.assertEquals(new TestBean(rowCount, "test" + (rowCount - 1)), em.getSingleResult(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 = ?", rowCount));
+
+        // batches smaller than a group never prepare the statement of a full group
+        List<String> prepared = new ArrayList<>();
+        em.batchInsert(recording(prepared), List.of(new TestBean(rowCount + 1, "test"), new TestBean(rowCount + 2, "test")));
+        conn.commit();
+        Assertions.assertEquals(List.of(bp.generateInsertStatement(2)), prepared);
+    }
+
+    // the connection of the test, recording the sql of the statements it prepares and the null values they bind
+    private static Connection recording(List<String> calls) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            Object ret = invoke(conn, method, args);
+            if (!method.getName().equals("prepareStatement")) {
+                return ret;
+            }
+            calls.add((String) args[0]);
+            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (stmtProxy, stmtMethod, stmtArgs) -> {
+                if (stmtMethod.getName().equals("setNull")) {
+                    calls.add(String.format("setNull(%d, %d)", stmtArgs[0], stmtArgs[1]));
+                }
+                return invoke(ret, stmtMethod, stmtArgs);
+            });
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @DisplayName("Using compile time generated mapper")
+    @Test
+    void testGeneratedEntityMapper() throws Exception {
+        log.info("Using compile time generated mapper");
+        Class<?> mapperClass = Class.forName(EntityMapper.getMapperName(TestBean.class));
+        EntityMapper<?> mapper = (EntityMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+        Assertions.assertEquals(TestBean.class, mapper.getBeanClass());
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?)", mapper.getInsertStatement());
+        Assertions.assertEquals("UPDATE test_table SET col2 = ? WHERE col1 = ?", mapper.getUpdateStatement());
+
+        TestBean expected = new TestBean(1, "test_value");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        em.insert(conn, expected);
+        conn.commit();
+        TestBean actual = em.getSingleResult(conn, TestBean.class, "SELECT col2, col1 FROM test_table");
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @DisplayName("Using reflective mapping")
+    @Test
+    void testReflectiveMapping() throws SQLException {
+        log.info("Using reflective mapping");
+        // private fields with field access are left to the reflective path, which generated mappers bypass elsewhere
+        Assertions.assertThrows(ClassNotFoundException.class, () -> Class.forName(EntityMapper.getMapperName(TestReflectiveBean.class)));
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, PRIMARY KEY (col1))");
+        em.insert(conn, new TestReflectiveBean(1, "inserted"));
+        em.batchInsert(conn, List.of(new TestReflectiveBean(2, null), new TestReflectiveBean(3, "inserted")));
+        em.update(conn, new TestReflectiveBean(1, "updated"));
+        em.batchUpdate(conn, List.of(new TestReflectiveBean(2, "updated")));
+        em.upsert(conn, new TestReflectiveBean(4, "upserted"));
+        em.delete(conn, new TestReflectiveBean(3, null));
+        conn.commit();
+        Assertions.assertEquals(List.of(new TestReflectiveBean(1, "updated"), new TestReflectiveBean(2, "updated"), new TestReflectiveBean(4, "upserted")),
+                em.getResultList(conn, TestReflectiveBean.class, "SELECT * FROM test_table ORDER BY col1"));
+        Assertions.assertEquals(new TestReflectiveBean(4, "upserted"), em.findById(conn, TestReflectiveBean.class, 4));
+    }
+
+    @DisplayName("Streaming rows")
+    @Test
+    void testStreamRows() throws SQLException {
+        log.info("Streaming rows");
+        int rowCount = 10_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        List<TestBean> beans = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            beans.add(new TestBean(i + 1, "test"));
+        }
+        em.batchInsert(conn, beans);
+        conn.commit();
+
+        try (Stream<TestBean> stream = em.getResultStream(conn, 100, TestBean.class, "SELECT * FROM test_table ORDER BY col1")) {
+            Assertions.assertEquals((long) rowCount * (rowCount + 1) / 2, stream.mapToLong(TestBean::getCol1).sum());
+        }
+        try (Stream<TestBean> stream = em.getResultStream(conn, TestBean.class, "SELECT * FROM test_table WHERE col1 <= ? ORDER BY col1", 3)) {
+            Assertions.assertIterableEquals(beans.subList(0, 3), stream.toList());
+        }
+
+        ResultIterator<Integer> it = em.getResultIterator(conn, Integer.class, "SELECT col1 FROM test_table ORDER BY col1");
+        Assertions.assertEquals(1, it.next());
+        Assertions.assertFalse(it.isClosed());
+        it.close();
+        Assertions.assertTrue(it.isClosed());
+        Assertions.assertFalse(it.hasNext());
+
+        it = em.getResultIterator(conn, Integer.class, "SELECT col1 FROM test_table WHERE col1 = ?", 1);
+        Assertions.assertEquals(1, it.next());
+        Assertions.assertFalse(it.hasNext());
+        Assertions.assertTrue(it.isClosed());
+
+        // rows failing to map close the cursor
+        em.execute(conn, "UPDATE test_table SET col2 = NULL WHERE col1 = ?", 2);
+        ResultIterator<TestFailingBean> failing = em.getResultIterator(conn, TestFailingBean.class, "SELECT * FROM test_table ORDER BY col1");
+        Assertions.assertEquals("test", failing.next().getCol2());
+        Assertions.assertThrows(IllegalArgumentException.class, failing::next);
+        Assertions.assertTrue(failing.isClosed());
+    }
+
+    @DisplayName("Handling rows with a callback")
+    @Test
+    void testForEach() throws SQLException {
+        log.info("Handling rows with a callback");
+        int rowCount = 1_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        List<TestBean> beans = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            beans.add(new TestBean(i + 1, "test" + (i + 1)));
+        }
+        em.batchInsert(conn, beans);
+        conn.commit();
+
+        List<TestBean> actual = new ArrayList<>(rowCount);
+        long count = em.forEach(conn, TestBean.class, "SELECT * FROM test_table ORDER BY col1", actual::add);
+        Assertions.assertEquals(rowCount, count);
+        Assertions.assertIterableEquals(beans, actual);
+
+        Set<TestBean> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<String> values = new ArrayList<>(rowCount);
+        count = em.forEach(conn, 100, TestBean.class, "SELECT * FROM test_table WHERE col1 > ? ORDER BY col1", true, bean -> {
+            instances.add(bean);
+            values.add(bean.getCol2());
+        }, 500);
+        Assertions.assertEquals(rowCount - 500, count);
+        Assertions.assertEquals(1, instances.size());
+        Assertions.assertEquals(beans.subList(500, rowCount).stream().map(TestBean::getCol2).toList(), values);
+    }
+
+    @DisplayName("Fetching columnar results")
+    @Test
+    void testColumnarResult() throws SQLException {
+        log.info("Fetching columnar results");
+        int rowCount = 200_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 BIGINT, col3 DOUBLE PRECISION, col4 TEXT, col5 DECIMAL(10, 2))");
+        execute("INSERT INTO test_table SELECT X, X * 1000, CAST(X AS DOUBLE PRECISION) / 2, 'value' || MOD(X, 10), X / 100.0 FROM SYSTEM_RANGE(1, " + rowCount + ")");
+        execute("UPDATE test_table SET col2 = NULL, col4 = NULL WHERE col1 = 1");
+
+        ColumnarResult result = em.getColumnarResult(conn, "SELECT * FROM test_table WHERE col1 <= ? ORDER BY col1", 1_500);
+        Assertions.assertEquals(1_500, result.getRowCount());
+        Assertions.assertEquals(5, result.getColumnCount());
+        IntVector col1 = (IntVector) result.getColumn("COL1");
+        LongVector col2 = (LongVector) result.getColumn(2);
+        DoubleVector col3 = (DoubleVector) result.getColumn("col3");
+        StringVector col4 = (StringVector) result.getColumn("col4");
+        Assertions.assertEquals(IntStream.rangeClosed(1, 1_500).boxed().toList(), Arrays.stream(col1.toArray()).boxed().toList());
+        Assertions.assertTrue(col2.isNull(0));
+        Assertions.assertNull(col2.getObject(0));
+        Assertions.assertEquals(2_000L, col2.get(1));
+        Assertions.assertEquals(1.5, col3.get(2));
+        Assertions.assertNull(col4.get(0));
+        Assertions.assertEquals("value2", col4.get(1));
+        Assertions.assertEquals(10, col4.getDictionary().size());
+        Assertions.assertEquals(new BigDecimal("0.04"), result.getColumn("col5").getObject(3));
+        Assertions.assertThrows(SQLException.class, () -> result.getColumn("col6"));
+
+        Assertions.assertArrayEquals(new long[]{3_000L, 4_000L}, em.getLongArray(conn, "SELECT col2 FROM test_table WHERE col1 IN (3, 4) ORDER BY col1"));
+        Assertions.assertArrayEquals(new double[]{1.5, 2.0}, em.getDoubleArray(conn, "SELECT col3 FROM test_table WHERE col1 IN (?, ?) ORDER BY col1", 3, 4));
+        Assertions.assertEquals(rowCount, em.getIntArray(conn, "SELECT col1 FROM test_table").length);
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getLongArray(conn, "SELECT col2 FROM test_table ORDER BY col1"));
+        Assertions.assertEquals("Cannot assign null value to a primitive type for column col2".toLowerCase(), ex.getMessage().toLowerCase());
+        ex = Assertions.assertThrows(SQLException.class, () -> em.getLongArray(conn, "SELECT col1, col2 FROM test_table"));
+        Assertions.assertEquals("ResultSet has 2 columns but 1 is expected", ex.getMessage());
+    }
+
+    @DisplayName("Buffering rows in compact pages")
+    @Test
+    void testRowBuffer() throws SQLException {
+        log.info("Buffering rows in compact pages");
+        int rowCount = 10_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 INTEGER, col3 BIGINT, col4 DOUBLE PRECISION, col5 TEXT, col6 NUMERIC(20,2), col7 INTEGER, col8 INTEGER, col9 BIGINT, col10 DOUBLE PRECISION, col11 TEXT, col12 NUMERIC(20,2), col13 INTEGER, col14 INTEGER, col15 BIGINT, col16 DOUBLE PRECISION, col17 TEXT, col18 NUMERIC(20,2), col19 INTEGER, col20 INTEGER, col21 BIGINT, col22 DOUBLE PRECISION, col23 TEXT, col24 NUMERIC(20,2), col25 INTEGER, col26 INTEGER, col27 BIGINT, col28 DOUBLE PRECISION, col29 TEXT, col30 NUMERIC(20,2))");
+        List<TestWideBean> beans = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            beans.add(newTestWideBean(i));
+        }
+        em.batchInsert(conn, beans);
+        execute("UPDATE test_table SET col3 = NULL, col5 = NULL, col6 = NULL WHERE col1 = 0");
+        conn.commit();
+
+        String sql = "SELECT * FROM test_table ORDER BY col1";
+        RowBuffer<TestWideBean> buffer = em.getRowBuffer(conn, TestWideBean.class, sql);
+        Assertions.assertEquals(rowCount, buffer.size());
+        Assertions.assertEquals(em.getResultList(conn, TestWideBean.class, sql), buffer);
+        Assertions.assertNull(buffer.getFirst().getCol5());
+        log.info("Buffered {} wide rows in {} bytes per row", rowCount, buffer.getBufferSize() / rowCount);
+
+        RowBuffer<TestBean> projection = em.getRowBuffer(conn, TestBean.class, "SELECT col5 AS col2, col1 FROM test_table WHERE col1 BETWEEN ? AND ? ORDER BY col1", 1, 2);
+        Assertions.assertEquals(List.of(new TestBean(1, "value1"), new TestBean(2, "value2")), projection);
+
+        execute("UPDATE test_table SET col2 = NULL WHERE col1 = 1");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getRowBuffer(conn, TestWideBean.class, sql));
+        Assertions.assertEquals("Cannot assign null value to a primitive type for column col2".toLowerCase(), ex.getMessage().toLowerCase());
+    }
+
+    @DisplayName("Running partitioned queries")
+    @Test
+    void testPartitionedQuery() throws SQLException {
+        log.info("Running partitioned queries");
+        int rowCount = 10_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        List<TestBean> beans = IntStream.rangeClosed(1, rowCount).mapToObj(i -> new TestBean(i, "test" + i)).toList();
+        em.batchInsert(conn, beans);
+        conn.commit();
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test_mem");
+
+        String sql = "SELECT * FROM test_table WHERE " + Partition.PLACEHOLDER + " ORDER BY col1";
+        Assertions.assertEquals(beans, em.getPartitionedResultList(dataSource, TestBean.class, sql, Partitioning.ranges("col1", 1, rowCount, 7), true));
+        List<TestBean> unordered = new ArrayList<>(em.getPartitionedResultList(dataSource, TestBean.class, sql, Partitioning.modulo("col1", 4), false));
+        unordered.sort(Comparator.comparing(TestBean::getCol1));
+        Assertions.assertEquals(beans, unordered);
+        Assertions.assertEquals(List.of(1, 2, 3, 4), em.getPartitionedResultList(dataSource, Integer.class, "SELECT col1 FROM test_table WHERE " + Partition.PLACEHOLDER + " AND col1 <= ? ORDER BY col1",
+                Partitioning.predicates("col1 < 3", "col1 >= 3"), true, 4));
+
+        sql = "SELECT * FROM test_table WHERE col1 > ? AND " + Partition.PLACEHOLDER + " AND col1 <= ? ORDER BY col1";
+        try (Stream<TestBean> stream = em.getPartitionedResultStream(dataSource, 100, TestBean.class, sql, Partitioning.ranges("col1", 1, rowCount, 3), true, 10, 9_000)) {
+            Assertions.assertEquals(beans.subList(10, 9_000), stream.toList());
+        }
+        try (Stream<TestBean> stream = em.getPartitionedResultStream(dataSource, 100, TestBean.class, sql, Partitioning.modulo("col1", 5), false, 10, 9_000)) {
+            Assertions.assertEquals(beans.subList(10, 9_000), stream.sorted(Comparator.comparing(TestBean::getCol1)).toList());
+        }
+        try (Stream<TestBean> stream = em.getPartitionedResultStream(dataSource, 10, TestBean.class, sql, Partitioning.modulo("col1", 5), true, 0, rowCount)) {
+            Assertions.assertEquals(5, stream.limit(5).count());
+        }
+
+        List<Partition> failing = Partitioning.predicates("col1 <= 5000", "no_such_column > 0");
+        Assertions.assertThrows(SQLException.class, () -> em.getPartitionedResultList(dataSource, TestBean.class, "SELECT * FROM test_table WHERE " + Partition.PLACEHOLDER, failing, true));
+        try (Stream<TestBean> stream = em.getPartitionedResultStream(dataSource, 10, TestBean.class, "SELECT * FROM test_table WHERE " + Partition.PLACEHOLDER, failing, true)) {
+            Assertions.assertThrows(UncheckedSQLException.class, stream::count);
+        }
+        String twice = "SELECT * FROM test_table WHERE " + Partition.PLACEHOLDER + " OR " + Partition.PLACEHOLDER;
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getPartitionedResultList(dataSource, TestBean.class, twice, failing, true));
+        Assertions.assertEquals("Query must contain the {partition} placeholder only once", ex.getMessage());
+
+        List<Partition> extreme = Partitioning.ranges("col1", Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        Assertions.assertEquals(4, extreme.size());
+        Assertions.assertEquals(List.of(Long.MIN_VALUE, -4611686018427387905L), extreme.getFirst().getParameters());
+        Assertions.assertEquals(List.of(4611686018427387904L, Long.MAX_VALUE), extreme.getLast().getParameters());
+        Assertions.assertEquals(List.of(Long.MIN_VALUE, Long.MAX_VALUE), Partitioning.ranges("col1", Long.MIN_VALUE, Long.MAX_VALUE, 1).getFirst().getParameters());
+    }
+
+    @DisplayName("Running operations asynchronously")
+    @Test
+    void testAsyncEntityManager() throws Exception {
+        log.info("Running operations asynchronously");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test_mem");
+
+        try (AsyncEntityManager async = new AsyncEntityManager(em, dataSource)) {
+            async.batchInsert(List.of(new TestBean(1, "test1"), new TestBean(2, "test2"))).get();
+            async.insert(new TestBean(3, "test3")).get();
+            Assertions.assertEquals(3, async.getResultList(TestBean.class, "SELECT * FROM test_table").get().size());
+            Assertions.assertEquals(new TestBean(2, "test2"), async.getSingleResult(TestBean.class, "SELECT * FROM test_table WHERE col1 = ?", 2).get());
+            ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () -> async.execute("DELETE FROM no_such_table").get());
+            Assertions.assertInstanceOf(SQLException.class, ex.getCause());
+
+            // latency is bounded by the slowest operation rather than the sum
+            long startTime = System.nanoTime();
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            try (FanOut fanOut = async.fanOut()) {
+                for (int i = 0; i < 5; i++) {
+                    int id = i % 3 + 1;
+                    results.add(fanOut.fork(c -> {
+                        sleep(300);
+                        return em.getSingleResult(c, Integer.class, "SELECT col1 FROM test_table WHERE col1 = ?", id);
+                    }));
+                }
+                fanOut.join();
+            }
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            log.info("Fanned out 5 operations of 300 ms in {} ms", elapsedMillis);
+            Assertions.assertEquals(List.of(1, 2, 3, 1, 2), results.stream().map(CompletableFuture::join).toList());
+            Assertions.assertTrue(elapsedMillis < 1_500);
+
+            // the first failure cancels the operations still running
+            startTime = System.nanoTime();
+            CompletableFuture<Integer> slow;
+            try (FanOut fanOut = async.fanOut()) {
+                slow = fanOut.fork(c -> {
+                    sleep(10_000);
+                    return 1;
+                });
+                fanOut.fork(c -> em.getResultList(c, TestBean.class, "SELECT * FROM no_such_table"));
+                Assertions.assertThrows(SQLException.class, fanOut::join);
+            }
+            Assertions.assertTrue(slow.isCancelled());
+            Assertions.assertTrue((System.nanoTime() - startTime) / 1_000_000 < 5_000);
+
+            // the failure is thrown even when join is woken before the failure is recorded
+            for (int i = 0; i < 20; i++) {
+                try (FanOut fanOut = async.fanOut()) {
+                    fanOut.fork(c -> em.getResultList(c, TestBean.class, "SELECT * FROM no_such_table"));
+                    Assertions.assertThrows(SQLException.class, fanOut::join);
+                }
+            }
+        }
+    }
+
+    @DisplayName("Pooling connections")
+    @Test
+    void testConnectionPool() throws Exception {
+        log.info("Pooling connections");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
+        JdbcDataSource source = new JdbcDataSource();
+        source.setURL("jdbc:h2:mem:test_mem");
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(2);
+        config.setConnectionTimeoutMillis(200);
+
+        try (ConnectionPool pool = new ConnectionPool(source, config)) {
+            em.setDataSource(pool);
+            em.insert(new TestBean(1, "test1"));
+            em.batchInsert(List.of(new TestBean(2, "test2"), new TestBean(3, "test3")));
+            Assertions.assertEquals(3, em.getResultList(TestBean.class, "SELECT * FROM test_table").size());
+            Assertions.assertArrayEquals(new int[]{1}, em.batchUpdate(List.of(new TestBean(2, "updated"))));
+            em.batchUpsert(List.of(new TestBean(4, "test4")));
+            List<TestBean> read = new ArrayList<>();
+            Assertions.assertEquals(4, em.forEach(TestBean.class, "SELECT * FROM test_table ORDER BY col1", read::add));
+            Assertions.assertEquals(new TestBean(2, "updated"), read.get(1));
+            Assertions.assertArrayEquals(new int[]{1}, em.batchDelete(List.of(new TestBean(4, null))));
+            Assertions.assertEquals(1, em.deleteById(TestBean.class, 2));
+            em.insert(new TestBean(2, "test2"));
+            Assertions.assertEquals(0, pool.getActiveCount());
+            Assertions.assertEquals(1, pool.getIdleCount());
+
+            Connection c1 = pool.getConnection();
+            Connection c2 = pool.getConnection();
+            Assertions.assertEquals(2, pool.getActiveCount());
+            Assertions.assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+            Assertions.assertEquals(1, pool.getTimeoutCount());
+            c2.close();
+            c2.close();
+            Assertions.assertTrue(c2.isClosed());
+            Assertions.assertThrows(SQLException.class, c2::createStatement);
+
+            // statements hand out the pooled connection, and are closed when it is returned
+            Statement statement;
+            try (Connection c3 = pool.getConnection()) {
+                statement = c3.prepareStatement("SELECT 1");
+                Assertions.assertSame(c3, statement.getConnection());
+            }
+            Assertions.assertTrue(statement.isClosed());
+
+            // uncommitted work is rolled back when the connection is returned
+            c1.setAutoCommit(false);
+            em.execute(c1, "DELETE FROM test_table");
+            c1.close();
+            try (Connection c3 = pool.getConnection()) {
+                Assertions.assertTrue(c3.getAutoCommit());
+            }
+            Assertions.assertEquals(3, em.getSingleResult(Long.class, "SELECT COUNT(*) FROM test_table"));
+
+            // virtual threads wait on the pool without exceeding its size
+            config.setConnectionTimeoutMillis(10_000);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    futures.add(executor.submit(() -> em.getSingleResult(Long.class, "SELECT COUNT(*) FROM test_table")));
+                }
+                for (var future : futures) {
+                    Assertions.assertEquals(3, future.get());
+                }
+            }
+            Assertions.assertTrue(pool.getTotalCount() <= 2);
+            log.info("Borrowed {} connections, created {}, max wait {} ms", pool.getBorrowCount(), pool.getCreatedCount(), pool.getMaxWaitNanos() / 1_000_000);
+        } finally {
+            em.setDataSource(null);
+        }
+
+        // expired and idle connections are closed
+        config.setMaxLifetimeMillis(50);
+        config.setIdleTimeoutMillis(50);
+        config.setHousekeepingIntervalMillis(20);
+        try (ConnectionPool pool = new ConnectionPool(source, config)) {
+            pool.getConnection().close();
+            Thread.sleep(200);
+            Assertions.assertEquals(0, pool.getIdleCount());
+            Assertions.assertEquals(0, pool.getTotalCount());
+            pool.getConnection().close();
+            Assertions.assertEquals(2, pool.getCreatedCount());
+        }
+
+        // idle connections are opened up to minIdle without exceeding maxSize
+        PoolConfig minIdleConfig = new PoolConfig();
+        minIdleConfig.setMaxSize(2);
+        minIdleConfig.setMinIdle(2);
+        minIdleConfig.setHousekeepingIntervalMillis(20);
+        try (ConnectionPool pool = new ConnectionPool(source, minIdleConfig); Connection c = pool.getConnection()) {
+            Thread.sleep(200);
+            Assertions.assertEquals(1, pool.getIdleCount());
+            Assertions.assertEquals(2, pool.getTotalCount());
+        }
+        minIdleConfig.setMinIdle(3);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConnectionPool(source, minIdleConfig));
+        minIdleConfig.setMinIdle(0);
+        minIdleConfig.setHousekeepingIntervalMillis(0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConnectionPool(source, minIdleConfig));
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            throw new SQLException("Interrupted", ex);
+        }
+    }
+
+    @DisplayName("Caching entities by id")
+    @Test
+    void testEntityCache() throws SQLException {
+        log.info("Caching entities by id");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, PRIMARY KEY (col1))");
+        em.batchInsert(conn, List.of(new TestBean(1, "test1"), new TestBean(2, "test2"), new TestBean(3, "test3")));
+        Assertions.assertEquals(new TestBean(1, "test1"), em.findById(conn, TestBean.class, 1));
+        Assertions.assertNull(em.findById(conn, TestBean.class, 4));
+
+        EntityCacheConfig config = new EntityCacheConfig();
+        config.setMaxSize(2);
+        config.setNegativeTtlMillis(60_000);
+        EntityCache cache = new EntityCache(config);
+        em.setEntityCache(cache);
+        // only reads in auto-commit mode, which see committed rows, go through the cache
+        conn.setAutoCommit(true);
+        try {
+            TestBean bean = em.findById(conn, TestBean.class, 1);
+            bean.setCol2("changed");
+            // ids of other numeric types find the same entry, and hits return copies
+            Assertions.assertEquals(new TestBean(1, "test1"), em.findById(conn, TestBean.class, 1L));
+            Assertions.assertNotSame(em.findById(conn, TestBean.class, 1), em.findById(conn, TestBean.class, 1));
+            Assertions.assertEquals(1, cache.getMissCount());
+            Assertions.assertEquals(3, cache.getHitCount());
+
+            // missing entities are cached too, and invalidated by inserts
+            Assertions.assertNull(em.findById(conn, TestBean.class, 4));
+            Assertions.assertNull(em.findById(conn, TestBean.class, 4));
+            Assertions.assertEquals(4, cache.getHitCount());
+            em.insert(conn, new TestBean(4, "test4"));
+            Assertions.assertEquals(new TestBean(4, "test4"), em.findById(conn, TestBean.class, 4));
+
+            // least recently used entries are evicted beyond maxSize
+            Assertions.assertEquals(2, cache.getSize());
+            em.findById(conn, TestBean.class, 2);
+            Assertions.assertEquals(2, cache.getSize());
+            Assertions.assertEquals(1, cache.getEvictionCount());
+
+            // writes invalidate the entities they change
+            em.update(conn, new TestBean(2, "updated"));
+            Assertions.assertEquals(new TestBean(2, "updated"), em.findById(conn, TestBean.class, 2));
+            em.batchUpdate(conn, List.of(new TestBean(2, "batch")));
+            Assertions.assertEquals(new TestBean(2, "batch"), em.findById(conn, TestBean.class, 2));
+            em.delete(conn, new TestBean(2, null));
+            Assertions.assertNull(em.findById(conn, TestBean.class, 2));
+            em.batchInsert(conn, List.of(new TestBean(2, "inserted")));
+            Assertions.assertEquals(new TestBean(2, "inserted"), em.findById(conn, TestBean.class, 2));
+            em.deleteById(conn, TestBean.class, 2);
+            Assertions.assertNull(em.findById(conn, TestBean.class, 2));
+
+            // raw statements need an explicit eviction
+            em.findById(conn, TestBean.class, 3);
+            em.execute(conn, "UPDATE test_table SET col2 = ? WHERE col1 = ?", "raw", 3);
+            Assertions.assertEquals(new TestBean(3, "test3"), em.findById(conn, TestBean.class, 3));
+            cache.evict(TestBean.class);
+            Assertions.assertEquals(0, cache.getSize());
+            Assertions.assertEquals(new TestBean(3, "raw"), em.findById(conn, TestBean.class, 3));
+
+            // reads inside transactions bypass the cache, so that changes rolled back are never cached
+            conn.setAutoCommit(false);
+            em.update(conn, new TestBean(3, "uncommitted"));
+            Assertions.assertEquals(new TestBean(3, "uncommitted"), em.findById(conn, TestBean.class, 3));
+            conn.rollback();
+            conn.setAutoCommit(true);
+            Assertions.assertEquals(new TestBean(3, "raw"), em.findById(conn, TestBean.class, 3));
+            Assertions.assertEquals(1, cache.getSize());
+
+            // expired entries are loaded again
+            config.setTtlMillis(50);
+            cache = new EntityCache(config);
+            em.setEntityCache(cache);
+            em.findById(conn, TestBean.class, 3);
+            em.findById(conn, TestBean.class, 3);
+            sleep(100);
+            em.findById(conn, TestBean.class, 3);
+            Assertions.assertEquals(2, cache.getMissCount());
+            Assertions.assertEquals(1, cache.getEvictionCount());
+        } finally {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    @DisplayName("Caching query results")
+    @Test
+    void testQueryCache() throws Exception {
+        log.info("Caching query results");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, PRIMARY KEY (col1))");
+        em.batchInsert(conn, List.of(new TestBean(1, "test1"), new TestBean(2, "test2"), new TestBean(3, "test3")));
+        String sql = "SELECT * FROM test_table WHERE col1 >= ? ORDER BY col1";
+        Set<String> tables = Set.of("TEST_TABLE");
+
+        conn.commit();
+        // only reads in auto-commit mode go through the cache
+        conn.setAutoCommit(true);
+        try {
+            QueryCacheConfig config = new QueryCacheConfig();
+            config.setMaxSize(2);
+            QueryCache cache = new QueryCache(config);
+            em.setQueryCache(cache);
+            List<TestBean> result = em.getCachedResultList(conn, TestBean.class, tables, sql, 2);
+            Assertions.assertEquals(List.of(new TestBean(2, "test2"), new TestBean(3, "test3")), result);
+            Assertions.assertSame(result, em.getCachedResultList(conn, TestBean.class, tables, sql, 2));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> result.add(new TestBean()));
+            Assertions.assertEquals(3, em.getCachedResultList(conn, TestBean.class, tables, sql, 1).size());
+            Assertions.assertEquals(2, cache.getMissCount());
+            Assertions.assertEquals(1, cache.getHitCount());
+
+            // writes to the table drop its results, raw writes need an explicit invalidation
+            em.update(conn, new TestBean(3, "updated"));
+            Assertions.assertEquals(0, cache.getSize());
+            Assertions.assertEquals(new TestBean(3, "updated"), em.getCachedResultList(conn, TestBean.class, tables, sql, 2).getLast());
+            em.getCachedResultList(conn, Integer.class, Set.of("other_table"), "SELECT COUNT(*) FROM test_table");
+            em.execute(conn, "DELETE FROM test_table WHERE col1 = ?", 3);
+            Assertions.assertEquals(2, em.getCachedResultList(conn, TestBean.class, tables, sql, 2).size());
+            cache.invalidate("test_table");
+            Assertions.assertEquals(1, em.getCachedResultList(conn, TestBean.class, tables, sql, 2).size());
+            Assertions.assertEquals(2, cache.getSize());
+
+            // least recently used results are evicted beyond maxSize
+            em.getCachedResultList(conn, TestBean.class, tables, sql, 1);
+            Assertions.assertEquals(2, cache.getSize());
+            Assertions.assertEquals(1, cache.getEvictionCount());
+
+            // reads inside transactions bypass the cache
+            conn.setAutoCommit(false);
+            Assertions.assertNotSame(em.getCachedResultList(conn, TestBean.class, tables, sql, 1), em.getCachedResultList(conn, TestBean.class, tables, sql, 1));
+            conn.setAutoCommit(true);
+
+            // concurrent misses load once, and failures are not cached
+            cache = new QueryCache();
+            AtomicInteger loads = new AtomicInteger();
+            QueryCache sharedCache = cache;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<List<Integer>>> futures = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    futures.add(executor.submit(() -> sharedCache.get(Integer.class, tables, "query", new Object[]{1}, () -> {
+                        loads.incrementAndGet();
+                        sleep(200);
+                        return List.of(1);
+                    })));
+                }
+                for (var future : futures) {
+                    Assertions.assertEquals(List.of(1), future.get());
+                }
+            }
+            Assertions.assertEquals(1, loads.get());
+            Assertions.assertThrows(SQLException.class, () -> sharedCache.get(Integer.class, tables, "failing", new Object[0], () -> {
+                throw new SQLException("Load failed");
+            }));
+            Assertions.assertEquals(List.of(2), cache.get(Integer.class, tables, "failing", new Object[0], () -> List.of(2)));
+
+            // callers waiting for a failed load load the result themselves
+            AtomicInteger attempts = new AtomicInteger();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<List<Integer>>> futures = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    futures.add(executor.submit(() -> sharedCache.get(Integer.class, tables, "retried", new Object[0], () -> {
+                        sleep(100);
+                        if (attempts.incrementAndGet() == 1) {
+                            throw new SQLException("Load failed");
+                        }
+                        return List.of(3);
+                    })));
+                }
+                int failures = 0;
+                for (var future : futures) {
+                    try {
+                        Assertions.assertEquals(List.of(3), future.get());
+                    } catch (ExecutionException ex) {
+                        failures++;
+                    }
+                }
+                Assertions.assertEquals(1, failures);
+            }
+
+            // array parameters are compared by content
+            Assertions.assertEquals(List.of(1), cache.get(Integer.class, tables, "query", new Object[]{new byte[]{1}}, () -> List.of(1)));
+            Assertions.assertEquals(List.of(1), cache.get(Integer.class, tables, "query", new Object[]{new byte[]{1}}, () -> List.of(2)));
+
+            // expired results are loaded again
+            config.setTtlMillis(50);
+            cache = new QueryCache(config);
+            em.setQueryCache(cache);
+            em.getCachedResultList(conn, TestBean.class, tables, sql, 1);
+            sleep(100);
+            em.getCachedResultList(conn, TestBean.class, tables, sql, 1);
+            Assertions.assertEquals(2, cache.getMissCount());
+            // the time to live starts once loaded
+            QueryCache ttlCache = cache;
+            Assertions.assertEquals(List.of(1), ttlCache.get(Integer.class, tables, "slow", new Object[0], () -> {
+                sleep(100);
+                return List.of(1);
+            }));
+            Assertions.assertEquals(List.of(1), ttlCache.get(Integer.class, tables, "slow", new Object[0], () -> List.of(2)));
+        } finally {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    @DisplayName("Finding beans by ids")
+    @Test
+    void testFindAllByIds() throws SQLException {
+        log.info("Finding beans by ids");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, PRIMARY KEY (col1))");
+        int rowCount = 50_000;
+        em.batchInsert(conn, iterable(IntStream.range(0, rowCount).mapToObj(i -> new TestBean(i + 1, "test" + (i + 1)))));
+        em.setStatementCacheSize(16);
+
+        // ids can be of any numeric type, duplicates and missing ones are skipped
+        List<Object> ids = new ArrayList<>();
+        ids.add(3L);
+        ids.add(rowCount + 1);
+        ids.add(1);
+        ids.add(3);
+        Map<Object, TestBean> beans = em.findAllByIds(conn, TestBean.class, ids);
+        Assertions.assertEquals(List.of(3L, 1), List.copyOf(beans.keySet()));
+        Assertions.assertEquals(new TestBean(3, "test3"), beans.get(3L));
+        Assertions.assertEquals(new TestBean(1, "test1"), beans.get(1));
+        Assertions.assertTrue(em.findAllByIds(conn, TestBean.class, List.of()).isEmpty());
+
+        // full chunks share a single statement, the tail is padded to a power of two
+        long misses = em.getStatementCacheMisses();
+        long startTime = System.nanoTime();
+        beans = em.findAllByIds(conn, TestBean.class, IntStream.rangeClosed(1, rowCount).boxed().toList());
+        long endTime = System.nanoTime();
+        Assertions.assertEquals(rowCount, beans.size());
+        Assertions.assertEquals(new TestBean(rowCount, "test" + rowCount), beans.get(rowCount));
+        Assertions.assertEquals(1, em.getStatementCacheMisses() - misses);
+        beans = em.findAllByIds(conn, TestBean.class, IntStream.rangeClosed(1, 2_020).boxed().toList());
+        Assertions.assertEquals(2_020, beans.size());
+        Assertions.assertEquals(2, em.getStatementCacheMisses() - misses);
+        log.info("Found {} beans by ids in {} round trips: {} ms", rowCount, rowCount / em.getBatchConfig().getMaxParameters(), (endTime - startTime) / 1_000_000);
+        em.closeStatements(conn);
+        conn.commit();
+
+        execute("DROP TABLE IF EXISTS test_table");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 TEXT, PRIMARY KEY (col1, col2))");
+        em.batchInsert(conn, List.of(new TestExceptions.TestBeanAllIdAnnotation("a", "b"), new TestExceptions.TestBeanAllIdAnnotation("a", "c")));
+        Map<Object, TestExceptions.TestBeanAllIdAnnotation> composite = em.findAllByIds(conn, TestExceptions.TestBeanAllIdAnnotation.class, List.of(List.of("a", "c"), List.of("b", "a")));
+        Assertions.assertEquals(Map.of(List.of("a", "c"), new TestExceptions.TestBeanAllIdAnnotation("a", "c")), composite);
+        conn.commit();
+    }
+
+    @DisplayName("Upserting beans")
+    @Test
+    void testUpsert() throws SQLException {
+        log.info("Upserting beans");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, PRIMARY KEY (col1))");
+        em.upsert(conn, new TestBean(1, "inserted"));
+        em.upsert(conn, new TestBean(1, "updated"));
+        Assertions.assertEquals(List.of(new TestBean(1, "updated")), em.getResultList(conn, TestBean.class, "SELECT * FROM test_table"));
+
+        int rowCount = 1_000;
+        em.getBatchConfig().setMaxRows(300);
+        int[] counts = em.batchUpsert(conn, IntStream.range(0, rowCount).mapToObj(i -> new TestBean(i + 1, "test" + (i + 1))).toList());
+        Assertions.assertEquals(rowCount, counts.length);
+        Assertions.assertEquals(rowCount, (int) em.getSingleResult(conn, int.class, "SELECT COUNT(*) FROM test_table"));
+        Assertions.assertEquals(new TestBean(1, "test1"), em.findById(conn, TestBean.class, 1));
+        conn.commit();
+
+        BeanProcessor<?> bp = BeanProcessorCache.getWriteProcessor(TestBean.class);
+        Assertions.assertEquals("MERGE INTO test_table (col1, col2) KEY (col1) VALUES (?, ?)", bp.generateUpsertStatement(new H2Dialect()));
+        Assertions.assertSame(bp.generateUpsertStatement(new H2Dialect()), bp.generateUpsertStatement(new H2Dialect()));
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?) ON CONFLICT (col1) DO UPDATE SET col2 = EXCLUDED.col2", bp.generateUpsertStatement(new PostgreSqlDialect()));
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?) AS new ON DUPLICATE KEY UPDATE col2 = new.col2", bp.generateUpsertStatement(new MySqlDialect()));
+        bp = BeanProcessorCache.getWriteProcessor(TestExceptions.TestBeanAllIdAnnotation.class);
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?) ON CONFLICT (col1, col2) DO NOTHING", bp.generateUpsertStatement(new PostgreSqlDialect()));
+        Assertions.assertEquals("INSERT INTO test_table (col1, col2) VALUES (?, ?) AS new ON DUPLICATE KEY UPDATE col1 = new.col1", bp.generateUpsertStatement(new MySqlDialect()));
+    }
+
+    @DisplayName("Updating changed columns only")
+    @Test
+    void testDirtyChecking() throws SQLException {
+        log.info("Updating changed columns only");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 INTEGER, col3 BIGINT, col4 DOUBLE PRECISION, col5 TEXT, col6 NUMERIC(20,2), col7 INTEGER, col8 INTEGER, col9 BIGINT, col10 DOUBLE PRECISION, col11 TEXT, col12 NUMERIC(20,2), col13 INTEGER, col14 INTEGER, col15 BIGINT, col16 DOUBLE PRECISION, col17 TEXT, col18 NUMERIC(20,2), col19 INTEGER, col20 INTEGER, col21 BIGINT, col22 DOUBLE PRECISION, col23 TEXT, col24 NUMERIC(20,2), col25 INTEGER, col26 INTEGER, col27 BIGINT, col28 DOUBLE PRECISION, col29 TEXT, col30 NUMERIC(20,2), PRIMARY KEY (col1))");
+        em.batchInsert(conn, IntStream.range(0, 10).mapToObj(TestEntityManager::newTestWideBean).toList());
+        em.setDirtyChecking(true);
+        em.setStatementCacheSize(16);
+        String sql = "SELECT * FROM test_table WHERE col1 = ?";
+
+        // columns changed behind the bean are left untouched, since only the changed ones are written
+        TestWideBean bean = em.getSingleResult(conn, TestWideBean.class, sql, 1);
+        em.execute(conn, "UPDATE test_table SET col5 = ?, col29 = ? WHERE col1 = ?", "external", "external", 1);
+        bean.setCol2(100);
+        bean.setCol29("changed");
+        em.update(conn, bean);
+        TestWideBean actual = em.getSingleResult(conn, TestWideBean.class, sql, 1);
+        Assertions.assertEquals(100, actual.getCol2());
+        Assertions.assertEquals("external", actual.getCol5());
+        Assertions.assertEquals("changed", actual.getCol29());
+
+        // unchanged beans are not written at all, and the snapshot follows the last update
+        long misses = em.getStatementCacheMisses();
+        long hits = em.getStatementCacheHits();
+        em.update(conn, bean);
+        em.update(conn, actual);
+        Assertions.assertEquals(misses, em.getStatementCacheMisses());
+        Assertions.assertEquals(hits, em.getStatementCacheHits());
+
+        // batches are grouped by changed columns, unchanged beans report no info
+        List<TestWideBean> beans = em.getResultList(conn, TestWideBean.class, "SELECT * FROM test_table WHERE col1 >= ? ORDER BY col1", 2);
+        em.execute(conn, "UPDATE test_table SET col11 = ?", "external");
+        beans.get(0).setCol3(42L);
+        beans.get(1).setCol6(null);
+        beans.get(2).setCol3(43L);
+        int[] counts = em.batchUpdate(conn, beans);
+        Assertions.assertArrayEquals(new int[]{1, 1, 1, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, counts);
+        actual = em.getSingleResult(conn, TestWideBean.class, sql, 3);
+        Assertions.assertNull(actual.getCol6());
+        Assertions.assertEquals("external", actual.getCol11());
+        Assertions.assertEquals(43L, em.getSingleResult(conn, TestWideBean.class, sql, 4).getCol3());
+
+        // shapes beyond the cached ones are still written, with a statement generated per call
+        bean = em.getSingleResult(conn, TestWideBean.class, sql, 6);
+        for (int shape = 1; shape < 32; shape++) {
+            bean.setCol2((shape & 1) != 0 ? shape : bean.getCol2());
+            bean.setCol3((shape & 2) != 0 ? shape : bean.getCol3());
+            bean.setCol4((shape & 4) != 0 ? shape : bean.getCol4());
+            bean.setCol5((shape & 8) != 0 ? "shape" + shape : bean.getCol5());
+            bean.setCol7((shape & 16) != 0 ? shape : bean.getCol7());
+            em.update(conn, bean);
+        }
+        Assertions.assertEquals(bean, em.getSingleResult(conn, TestWideBean.class, sql, 6));
+
+        // beans without a snapshot are fully written
+        TestWideBean created = newTestWideBean(5);
+        em.update(conn, created);
+        Assertions.assertEquals("value5", em.getSingleResult(conn, TestWideBean.class, sql, 5).getCol11());
+        conn.commit();
+    }
+
+    @DisplayName("Loading lazy columns")
+    @Test
+    void testLazyColumns() throws SQLException {
+        log.info("Loading lazy columns");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT, col3 TEXT, PRIMARY KEY (col1))");
+        em.batchInsert(conn, List.of(new TestLazyBean(1, "a", "payload1"), new TestLazyBean(2, "b", "payload2")));
+        BeanProcessor<TestLazyBean> bp = BeanProcessorCache.getWriteProcessor(TestLazyBean.class);
+        Assertions.assertEquals("SELECT col1, col2 FROM test_table WHERE col1 = ?", bp.generateSelectByIdStatement());
+        Assertions.assertEquals("SELECT col3 FROM test_table WHERE col1 = ?", bp.generateSelectLazyStatement());
+
+        // lazy columns are left out of reads by id, and loaded into the same bean on demand
+        TestLazyBean bean = em.findById(conn, TestLazyBean.class, 1);
+        Assertions.assertEquals(new TestLazyBean(1, "a", null), bean);
+        Assertions.assertEquals(new TestLazyBean(2, "b", null), em.findAllByIds(conn, TestLazyBean.class, List.of(2)).get(2));
+        Assertions.assertTrue(em.loadLazyColumns(conn, bean));
+        Assertions.assertEquals("payload1", bean.getCol3());
+        Assertions.assertFalse(em.loadLazyColumns(conn, new TestLazyBean(3, null, null)));
+
+        // lazy columns not loaded are not written by updates
+        TestLazyBean unloaded = em.findById(conn, TestLazyBean.class, 2);
+        unloaded.setCol2("changed");
+        em.update(conn, unloaded);
+        em.batchUpdate(conn, List.of(unloaded));
+        Assertions.assertEquals(new TestLazyBean(2, "changed", "payload2"), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 2));
+        bean.setCol3("payload3");
+        em.update(conn, bean);
+        Assertions.assertEquals(new TestLazyBean(1, "a", "payload3"), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 1));
+
+        // loaded lazy columns set to null are written, and partial projections only write the columns they read
+        bean.setCol3(null);
+        em.update(conn, bean);
+        Assertions.assertEquals(new TestLazyBean(1, "a", null), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 1));
+        TestLazyBean projected = em.getSingleResult(conn, TestLazyBean.class, "SELECT col1, col3 FROM test_table WHERE col1 = ?", 2);
+        projected.setCol3("projected");
+        em.update(conn, projected);
+        em.batchUpdate(conn, List.of(projected));
+        Assertions.assertEquals(new TestLazyBean(2, "changed", "projected"), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 2));
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.upsert(conn, projected));
+        Assertions.assertEquals("Bean of class TestLazyBean was read with a subset of its columns and cannot be upserted", ex.getMessage());
+        Assertions.assertEquals(List.of(new TestLazyBean(1, null, null), new TestLazyBean(2, null, null)), em.getResultList(conn, TestLazyBean.class, "SELECT col1 FROM test_table ORDER BY col1"));
+
+        // with dirty checking, loaded values are part of the snapshot
+        em.setDirtyChecking(true);
+        TestLazyBean checked = em.findById(conn, TestLazyBean.class, 1);
+        Assertions.assertTrue(em.loadLazyColumns(conn, checked));
+        em.execute(conn, "UPDATE test_table SET col3 = ? WHERE col1 = ?", "external", 1);
+        checked.setCol2("checked");
+        em.update(conn, checked);
+        Assertions.assertEquals(new TestLazyBean(1, "checked", "external"), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 1));
+        TestLazyBean idOnly = em.getSingleResult(conn, TestLazyBean.class, "SELECT col1 FROM test_table WHERE col1 = ?", 2);
+        idOnly.setCol2("id only");
+        em.update(conn, idOnly);
+        Assertions.assertEquals(new TestLazyBean(2, "id only", "projected"), em.getSingleResult(conn, TestLazyBean.class, "SELECT * FROM test_table WHERE col1 = ?", 2));
+
+        ex = Assertions.assertThrows(SQLException.class, () -> em.loadLazyColumns(conn, new TestBean(1, null)));
+        Assertions.assertEquals("Bean class TestBean has no lazy @Column annotated fields", ex.getMessage());
+        conn.commit();
+    }
+
+    @DisplayName("Streaming LOB columns")
+    @Test
+    void testLobColumns() throws Exception {
+        log.info("Streaming LOB columns");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 VARBINARY, col3 BLOB, col4 CLOB, PRIMARY KEY (col1))");
+        byte[] content = new byte[1 << 20];
+        new Random(42).nextBytes(content);
+        String text = "text".repeat(100_000);
+        em.insert(conn, new TestLobBean(1, new byte[]{1, 2, 3}, new ByteArrayInputStream(content), new StringReader(text)));
+        em.insert(conn, new TestLobBean(2, null, null, null));
+
+        // streams are read while their row is current
+        List<String> read = new ArrayList<>();
+        em.forEach(conn, 10, TestLobBean.class, "SELECT * FROM test_table ORDER BY col1", false, bean -> {
+            try {
+                read.add(Arrays.toString(bean.getCol2()));
+                read.add(bean.getCol3() == null ? null : String.valueOf(Arrays.equals(content, bean.getCol3().readAllBytes())));
+                read.add(bean.getCol4() == null ? null : String.valueOf(text.equals(new BufferedReader(bean.getCol4()).readLine())));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        Assertions.assertEquals(Arrays.asList("[1, 2, 3]", "true", "true", "null", null, null), read);
+
+        // collected rows would hold streams invalidated by the next row, unless the stream columns are not selected
+        SQLException ex = Assertions.assertThrows(SQLException.class, () -> em.getResultList(conn, TestLobBean.class, "SELECT * FROM test_table"));
+        Assertions.assertEquals("Class TestLobBean is read with InputStream or Reader values, which are only valid in forEach and result iterators", ex.getMessage());
+        ex = Assertions.assertThrows(SQLException.class, () -> em.getSingleResult(conn, InputStream.class, "SELECT col3 FROM test_table WHERE col1 = ?", 1));
+        Assertions.assertEquals("Class InputStream is read with InputStream or Reader values, which are only valid in forEach and result iterators", ex.getMessage());
+        Assertions.assertEquals(2, em.getResultList(conn, TestLobBean.class, "SELECT col1, col2 FROM test_table").size());
+        try (ResultIterator<TestLobBean> it = em.getResultIterator(conn, TestLobBean.class, "SELECT * FROM test_table WHERE col1 = ?", 1)) {
+            Assertions.assertArrayEquals(content, it.next().getCol3().readAllBytes());
+        }
+
+        // sized streams are bound with their length, which drivers read up to rather than buffering the stream
+        em.execute(conn, "UPDATE test_table SET col3 = ?, col4 = ? WHERE col1 = ?", new SizedInputStream(new ByteArrayInputStream(content), content.length - 1),
+                new SizedReader(new StringReader(text), text.length() - 1), 2);
+        Assertions.assertArrayEquals(Arrays.copyOf(content, content.length - 1), em.getSingleResult(conn, byte[].class, "SELECT col3 FROM test_table WHERE col1 = ?", 2));
+        Assertions.assertEquals(text.length() - 1, em.getSingleResult(conn, Clob.class, "SELECT col4 FROM test_table WHERE col1 = ?", 2).length());
+        em.update(conn, new TestSizedLobBean(2, new SizedInputStream(new ByteArrayInputStream(content), content.length), new SizedReader(new StringReader(text), text.length())));
+        TestSizedLobBean sized = em.getSingleResult(conn, TestSizedLobBean.class, "SELECT col1, col3, col4 FROM test_table WHERE col1 = ?", 2);
+        Assertions.assertEquals(content.length, sized.getCol3().length());
+        Assertions.assertArrayEquals(content, sized.getCol3().stream().readAllBytes());
+        Assertions.assertEquals(text.length(), sized.getCol4().length());
+
+        // files are bound as streams of known length
+        Path file = Files.createTempFile("jpalite", ".bin");
+        try {
+            Files.write(file, content);
+            em.execute(conn, "UPDATE test_table SET col3 = ? WHERE col1 = ?", file, 2);
+            Blob blob = em.getSingleResult(conn, Blob.class, "SELECT col3 FROM test_table WHERE col1 = ?", 2);
+            Assertions.assertEquals(content.length, blob.length());
+            Assertions.assertArrayEquals(content, em.getSingleResult(conn, byte[].class, "SELECT col3 FROM test_table WHERE col1 = ?", 2));
+            Clob clob = em.getSingleResult(conn, Clob.class, "SELECT col4 FROM test_table WHERE col1 = ?", 1);
+            em.execute(conn, "UPDATE test_table SET col3 = ?, col4 = ? WHERE col1 = ?", blob, clob, 1);
+            Assertions.assertEquals(text.length(), em.getSingleResult(conn, Clob.class, "SELECT col4 FROM test_table WHERE col1 = ?", 1).length());
+        } finally {
+            Files.delete(file);
+        }
+        conn.commit();
+    }
+
     @DisplayName("Batch inserting")
     @Test
     void testBatchInsert() throws SQLException {
@@ -109,6 +1220,64 @@ public class TestEntityManager extends TestSession {
         log.info("Inserted {} rows with JpaLite: {} ms", count, (endTime - startTime) / 1_000_000);
     }
 
+    @DisplayName("Mapping wide beans")
+    @Test
+    void testMapWideBeans() throws SQLException {
+        log.info("Mapping wide beans");
+        int rowCount = 1_000;
+
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 INTEGER, col3 BIGINT, col4 DOUBLE PRECISION, col5 TEXT, col6 NUMERIC(20,2), col7 INTEGER, col8 INTEGER, col9 BIGINT, col10 DOUBLE PRECISION, col11 TEXT, col12 NUMERIC(20,2), col13 INTEGER, col14 INTEGER, col15 BIGINT, col16 DOUBLE PRECISION, col17 TEXT, col18 NUMERIC(20,2), col19 INTEGER, col20 INTEGER, col21 BIGINT, col22 DOUBLE PRECISION, col23 TEXT, col24 NUMERIC(20,2), col25 INTEGER, col26 INTEGER, col27 BIGINT, col28 DOUBLE PRECISION, col29 TEXT, col30 NUMERIC(20,2))");
+        List<TestWideBean> expected = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            expected.add(newTestWideBean(i));
+        }
+        em.batchInsert(conn, expected);
+        conn.commit();
+
+        Assertions.assertEquals(expected, em.getResultList(conn, TestWideBean.class, "SELECT * FROM test_table ORDER BY col1"));
+        em.setGeneratedMappers(true);
+        Assertions.assertEquals(expected, em.getResultList(conn, TestWideBean.class, "SELECT * FROM test_table ORDER BY col1"));
+    }
+
+    private static <T> Iterable<T> iterable(Stream<T> stream) {
+        return stream::iterator;
+    }
+
+    private static TestWideBean newTestWideBean(int i) {
+        TestWideBean bean = new TestWideBean();
+        bean.setCol1(i);
+        bean.setCol2(i);
+        bean.setCol3((long) i);
+        bean.setCol4(i / 2.0);
+        bean.setCol5("value" + i);
+        bean.setCol6(BigDecimal.valueOf(i, 2));
+        bean.setCol7(i);
+        bean.setCol8(i);
+        bean.setCol9((long) i);
+        bean.setCol10(i / 2.0);
+        bean.setCol11("value" + i);
+        bean.setCol12(BigDecimal.valueOf(i, 2));
+        bean.setCol13(i);
+        bean.setCol14(i);
+        bean.setCol15((long) i);
+        bean.setCol16(i / 2.0);
+        bean.setCol17("value" + i);
+        bean.setCol18(BigDecimal.valueOf(i, 2));
+        bean.setCol19(i);
+        bean.setCol20(i);
+        bean.setCol21((long) i);
+        bean.setCol22(i / 2.0);
+        bean.setCol23("value" + i);
+        bean.setCol24(BigDecimal.valueOf(i, 2));
+        bean.setCol25(i);
+        bean.setCol26(i);
+        bean.setCol27((long) i);
+        bean.setCol28(i / 2.0);
+        bean.setCol29("value" + i);
+        bean.setCol30(BigDecimal.valueOf(i, 2));
+        return bean;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -123,4 +1292,157 @@ public class TestEntityManager extends TestSession {
 
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Table(name = "test_table")
+    public static class TestReflectiveBean {
+
+        @Id
+        @Column(name = "col1", fieldAccess = true)
+        private Integer col1;
+        @Column(name = "col2", fieldAccess = true)
+        private String col2;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @Table(name = "test_table")
+    public static class TestFailingBean {
+
+        @Id
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col2")
+        private String col2;
+
+        public void setCol2(String col2) {
+            if (col2 == null) {
+                throw new IllegalArgumentException("col2 is required");
+            }
+            this.col2 = col2;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Table(name = "test_table")
+    public static class TestLobBean {
+
+        @Id
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col2")
+        private byte[] col2;
+        @Column(name = "col3")
+        private InputStream col3;
+        @Column(name = "col4")
+        private Reader col4;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Table(name = "test_table")
+    public static class TestSizedLobBean {
+
+        @Id
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col3")
+        private SizedInputStream col3;
+        @Column(name = "col4")
+        private SizedReader col4;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Table(name = "test_table")
+    public static class TestLazyBean {
+
+        @Id
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col2")
+        private String col2;
+        @Column(name = "col3", lazy = true)
+        private String col3;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @Table(name = "test_table")
+    public static class TestWideBean {
+
+        @Id
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col2")
+        private int col2;
+        @Column(name = "col3")
+        private Long col3;
+        @Column(name = "col4")
+        private Double col4;
+        @Column(name = "col5")
+        private String col5;
+        @Column(name = "col6")
+        private BigDecimal col6;
+        @Column(name = "col7")
+        private Integer col7;
+        @Column(name = "col8")
+        private int col8;
+        @Column(name = "col9")
+        private Long col9;
+        @Column(name = "col10")
+        private Double col10;
+        @Column(name = "col11")
+        private String col11;
+        @Column(name = "col12")
+        private BigDecimal col12;
+        @Column(name = "col13")
+        private Integer col13;
+        @Column(name = "col14")
+        private int col14;
+        @Column(name = "col15")
+        private Long col15;
+        @Column(name = "col16")
+        private Double col16;
+        @Column(name = "col17")
+        private String col17;
+        @Column(name = "col18")
+        private BigDecimal col18;
+        @Column(name = "col19")
+        private Integer col19;
+        @Column(name = "col20")
+        private int col20;
+        @Column(name = "col21")
+        private Long col21;
+        @Column(name = "col22")
+        private Double col22;
+        @Column(name = "col23")
+        private String col23;
+        @Column(name = "col24")
+        private BigDecimal col24;
+        @Column(name = "col25")
+        private Integer col25;
+        @Column(name = "col26")
+        private int col26;
+        @Column(name = "col27")
+        private Long col27;
+        @Column(name = "col28")
+        private Double col28;
+        @Column(name = "col29")
+        private String col29;
+        @Column(name = "col30")
+        private BigDecimal col30;
+
+    }
+
 }
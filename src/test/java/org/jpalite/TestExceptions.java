@@ -17,10 +17,10 @@ import java.util.List;
 @Log4j2
 public class TestExceptions extends TestSession {
 
-    @DisplayName("Fetching unsupported type as scalar")
+    @DisplayName("Fetching unsupported type from a single column")
     @Test
-    void testFetchUnsupportedTypeAsScalar() throws SQLException {
-        log.info("Fetching unsupported type as scalar");
+    void testFetchUnsupportedType() throws SQLException {
+        log.info("Fetching unsupported type from a single column");
         String expected = "test_value";
         execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT)");
         try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO test_table VALUES (?)")) {
@@ -29,7 +29,10 @@ public class TestExceptions extends TestSession {
         }
         conn.commit();
         Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getSingleResult(conn, Exception.class, "SELECT col1 FROM test_table LIMIT 1"));
-        Assertions.assertEquals("Unsupported column processor for class Exception".toLowerCase(), ex.getMessage().toLowerCase());
+        // classes without a column processor are mapped as beans, even from a single column
+        Assertions.assertEquals("Bean class Exception has no @Column annotated fields".toLowerCase(), ex.getMessage().toLowerCase());
+        ex = Assertions.assertThrows(SQLException.class, () -> em.getSingleResult(conn, TestBeanUnsupportedType.class, "SELECT col1 FROM test_table LIMIT 1"));
+        Assertions.assertEquals("Unsupported column processor for class StringBuilder", ex.getMessage());
     }
 
     @DisplayName("Fetching null value as primitive scalar")
@@ -173,6 +176,11 @@ public class TestExceptions extends TestSession {
         execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 TEXT)");
         Exception ex = Assertions.assertThrows(SQLException.class, () -> em.execute(conn, "UPDATE test_table SET col2 = ? WHERE col1 = ?", "test_param"));
         Assertions.assertEquals("Query needs 2 parameters but 1 were provided", ex.getMessage());
+        // placeholders in literals and comments are not parameters
+        Assertions.assertEquals(0, em.execute(conn, "UPDATE test_table SET col2 = '?' /* ? */ WHERE col1 = ? -- ?", 1));
+        em.setStatementCacheSize(4);
+        ex = Assertions.assertThrows(SQLException.class, () -> em.execute(conn, "UPDATE test_table SET col2 = ? WHERE col1 = ?", "test_param"));
+        Assertions.assertEquals("Query needs 2 parameters but 1 were provided", ex.getMessage());
     }
 
     @DisplayName("Inserting bean with no @Table annotation")
@@ -191,6 +199,26 @@ public class TestExceptions extends TestSession {
         Assertions.assertEquals("Bean class TestBeanNoIdAnnotation has no @Id annotated fields", ex.getMessage());
     }
 
+    @DisplayName("Finding beans with malformed ids")
+    @Test
+    void testFindAllByIdsMalformedIds() {
+        log.info("Finding beans with malformed ids");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.findAllByIds(conn, TestBeanNoIdAnnotation.class, List.of(1)));
+        Assertions.assertEquals("Bean class TestBeanNoIdAnnotation has no @Id annotated fields", ex.getMessage());
+        ex = Assertions.assertThrows(SQLException.class, () -> em.findAllByIds(conn, TestBeanAllIdAnnotation.class, List.of("a")));
+        Assertions.assertEquals("Ids of class TestBeanAllIdAnnotation must be lists of 2 values", ex.getMessage());
+        ex = Assertions.assertThrows(SQLException.class, () -> em.findAllByIds(conn, TestBean.class, Arrays.asList(1, null)));
+        Assertions.assertEquals("Id list contains null values", ex.getMessage());
+    }
+
+    @DisplayName("Deleting bean with no @Id annotation")
+    @Test
+    void testDeleteBeanNoIdAnnotation() {
+        log.info("Deleting bean with no @Id annotation");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.deleteById(conn, TestBeanNoIdAnnotation.class, 1));
+        Assertions.assertEquals("Bean class TestBeanNoIdAnnotation has no @Id annotated fields", ex.getMessage());
+    }
+
     @DisplayName("Updating bean with all @Id annotations")
     @Test
     void testUpdateBeanAllIdAnnotations() {
@@ -258,6 +286,15 @@ public class TestExceptions extends TestSession {
 
     }
 
+    @Data
+    @NoArgsConstructor
+    public static class TestBeanUnsupportedType {
+
+        @Column(name = "col1")
+        private StringBuilder col1;
+
+    }
+
     @Getter
     @NoArgsConstructor
     @AllArgsConstructor
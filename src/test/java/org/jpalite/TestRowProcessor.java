@@ -2,15 +2,23 @@ package org.jpalite;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jpalite.annotation.Column;
+import org.jpalite.annotation.EntityConstructor;
+import org.jpalite.annotation.Table;
+import org.jpalite.processor.row.BeanProcessorCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -50,6 +58,7 @@ public class TestRowProcessor extends TestSession {
         conn.commit();
         List<TestBean> actual = em.getResultList(conn, TestBean.class, "SELECT * FROM test_table ORDER BY 1");
         Assertions.assertIterableEquals(expected, actual);
+        Assertions.assertIterableEquals(expected, em.getRowBuffer(conn, TestBean.class, "SELECT col2, col1 FROM test_table ORDER BY 1"));
     }
 
     @DisplayName("Fetching multiple rows as list of scalars")
@@ -69,6 +78,167 @@ public class TestRowProcessor extends TestSession {
         Assertions.assertIterableEquals(expected, actual);
     }
 
+    @DisplayName("Fetching beans with different column layouts")
+    @Test
+    void testFetchBeansWithDifferentColumnLayouts() throws SQLException {
+        log.info("Fetching beans with different column layouts");
+        TestBean expected = new TestBean("test_value1", "test_value2");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 TEXT)");
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO test_table VALUES (?,?)")) {
+            stmt.setString(1, expected.col1);
+            stmt.setString(2, expected.col2);
+            stmt.executeUpdate();
+        }
+        conn.commit();
+        TestBean actual = em.getSingleResult(conn, TestBean.class, "SELECT col1, col2 FROM test_table");
+        Assertions.assertEquals(expected, actual);
+        actual = em.getSingleResult(conn, TestBean.class, "SELECT col2, col1 FROM test_table");
+        Assertions.assertEquals(expected, actual);
+        actual = em.getSingleResult(conn, TestBean.class, "SELECT col1, col2 FROM test_table");
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @DisplayName("Reusing cached bean processors")
+    @Test
+    void testReuseCachedBeanProcessors() throws SQLException {
+        log.info("Reusing cached bean processors");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 TEXT)");
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT col1, col2 FROM test_table")) {
+            ResultSetMetaData rsmd = stmt.getMetaData();
+            Assertions.assertSame(BeanProcessorCache.getSelectProcessor(TestBean.class, rsmd), BeanProcessorCache.getSelectProcessor(TestBean.class, rsmd));
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT col2, col1 FROM test_table")) {
+            ResultSetMetaData rsmd = stmt.getMetaData();
+            Assertions.assertSame(BeanProcessorCache.getSelectProcessor(TestBean.class, rsmd), BeanProcessorCache.getSelectProcessor(TestBean.class, rsmd));
+        }
+        BeanProcessorCache.evict(TestBean.class);
+    }
+
+    @DisplayName("Fetching bean with direct field access")
+    @Test
+    void testFetchBeanWithFieldAccess() throws SQLException {
+        log.info("Fetching bean with direct field access");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 INTEGER)");
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO test_table VALUES (?,?)")) {
+            stmt.setString(1, "test_value1");
+            stmt.setInt(2, 2);
+            stmt.executeUpdate();
+        }
+        conn.commit();
+        TestBeanFieldAccess actual = em.getSingleResult(conn, TestBeanFieldAccess.class, "SELECT * FROM test_table LIMIT 1");
+        Assertions.assertEquals("test_value1", actual.col1);
+        Assertions.assertEquals(2, actual.col2);
+    }
+
+    @DisplayName("Fetching beans with generated mappers")
+    @Test
+    void testFetchBeansWithGeneratedMappers() throws SQLException {
+        log.info("Fetching beans with generated mappers");
+        List<TestBeanNumbers> expected = Arrays.asList(new TestBeanNumbers(1, 2, 3L, 4.5, "test_value1"), new TestBeanNumbers(2, null, null, null, null));
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 INTEGER, col3 BIGINT, col4 DOUBLE PRECISION, col5 TEXT)");
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO test_table VALUES (?,?,?,?,?)")) {
+            for (var bean : expected) {
+                stmt.setInt(1, bean.col1);
+                stmt.setObject(2, bean.col2);
+                stmt.setObject(3, bean.col3);
+                stmt.setObject(4, bean.col4);
+                stmt.setString(5, bean.col5);
+                stmt.executeUpdate();
+            }
+        }
+        conn.commit();
+        em.setGeneratedMappers(true);
+        List<TestBeanNumbers> actual = em.getResultList(conn, TestBeanNumbers.class, "SELECT * FROM test_table ORDER BY 1");
+        Assertions.assertIterableEquals(expected, actual);
+        actual = em.getResultList(conn, TestBeanNumbers.class, "SELECT col5, col4, col3, col2, col1 FROM test_table ORDER BY col1");
+        Assertions.assertIterableEquals(expected, actual);
+        List<TestBeanNumbers> reused = new ArrayList<>();
+        em.forEach(conn, 10, TestBeanNumbers.class, "SELECT * FROM test_table ORDER BY 1", true, bean -> reused.add(new TestBeanNumbers(bean.col1, bean.col2, bean.col3, bean.col4, bean.col5)));
+        Assertions.assertIterableEquals(expected, reused);
+        execute("UPDATE test_table SET col1 = NULL");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getResultList(conn, TestBeanNumbers.class, "SELECT * FROM test_table"));
+        Assertions.assertEquals("Cannot assign null value to a primitive type for column col1".toLowerCase(), ex.getMessage().toLowerCase());
+    }
+
+    @DisplayName("Fetching primitive beans without boxing")
+    @Test
+    void testFetchPrimitiveBeansWithoutBoxing() throws SQLException {
+        log.info("Fetching primitive beans without boxing");
+        int rowCount = 100_000;
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 BIGINT, col3 DOUBLE PRECISION, col4 INTEGER, col5 BIGINT, col6 DOUBLE PRECISION)");
+        execute("INSERT INTO test_table SELECT X + 1000, X * 1000000, CAST(X AS DOUBLE PRECISION) / 3, X + 2000, X * 2000000, CAST(X AS DOUBLE PRECISION) / 7 FROM SYSTEM_RANGE(1, " + rowCount + ")");
+        String sql = "SELECT * FROM test_table ORDER BY col1";
+        TestBeanPrimitiveNumbers first = em.getResultList(conn, TestBeanPrimitiveNumbers.class, sql).getFirst();
+        Assertions.assertEquals(new TestBeanPrimitiveNumbers(1001, 1000000L, 1 / 3.0, 2001, 2000000L, 1 / 7.0), first);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long primitiveBytes = 0;
+        long boxedBytes = 0;
+        for (int i = 0; i < 5; i++) {
+            long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+            em.forEach(conn, 1_000, TestBeanPrimitiveNumbers.class, sql, true, bean -> {
+            });
+            primitiveBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+            startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+            em.forEach(conn, 1_000, TestBeanBoxedNumbers.class, sql, true, bean -> {
+            });
+            boxedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+        }
+        log.info("Allocated {} bytes per row mapping primitive fields, {} bytes per row mapping boxed fields", primitiveBytes / rowCount, boxedBytes / rowCount);
+        Assertions.assertTrue(primitiveBytes < boxedBytes);
+
+        execute("UPDATE test_table SET col5 = NULL");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getResultList(conn, TestBeanPrimitiveNumbers.class, sql));
+        Assertions.assertEquals("Cannot assign null value to a primitive type for column col5".toLowerCase(), ex.getMessage().toLowerCase());
+    }
+
+    @DisplayName("Fetching records and immutable beans through their constructor")
+    @Test
+    void testFetchImmutableBeans() throws SQLException {
+        log.info("Fetching records and immutable beans through their constructor");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 INTEGER, col3 BIGINT)");
+        em.insert(conn, new TestRecord("a", 1, 10L));
+        em.insert(conn, new TestRecord("b", 2, null));
+
+        List<TestRecord> records = em.getResultList(conn, TestRecord.class, "SELECT col3, col2, col1 FROM test_table ORDER BY col1");
+        Assertions.assertEquals(List.of(new TestRecord("a", 1, 10L), new TestRecord("b", 2, null)), records);
+        List<TestRecord> streamed = new ArrayList<>();
+        em.forEach(conn, 1, TestRecord.class, "SELECT * FROM test_table ORDER BY col1", true, streamed::add);
+        Assertions.assertEquals(records, streamed);
+
+        List<TestBeanImmutable> beans = em.getResultList(conn, TestBeanImmutable.class, "SELECT * FROM test_table ORDER BY col1");
+        Assertions.assertEquals(List.of(new TestBeanImmutable("a", 1, 10L), new TestBeanImmutable("b", 2, null)), beans);
+        Assertions.assertEquals(records, em.getRowBuffer(conn, TestRecord.class, "SELECT col3, col2, col1 FROM test_table ORDER BY col1"));
+        Assertions.assertEquals(beans, em.getRowBuffer(conn, TestBeanImmutable.class, "SELECT * FROM test_table ORDER BY col1"));
+
+        execute("UPDATE test_table SET col2 = NULL");
+        Exception ex = Assertions.assertThrows(SQLException.class, () -> em.getResultList(conn, TestRecord.class, "SELECT * FROM test_table"));
+        Assertions.assertEquals("Cannot assign null value to a primitive type for column col2".toLowerCase(), ex.getMessage().toLowerCase());
+    }
+
+    @DisplayName("Fetching partial projections")
+    @Test
+    void testFetchPartialProjections() throws SQLException {
+        log.info("Fetching partial projections");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 INTEGER, col2 INTEGER, col3 BIGINT, col4 DOUBLE PRECISION, col5 TEXT)");
+        execute("INSERT INTO test_table VALUES (1, 2, 3, 4.5, 'test_value1')");
+        String sql = "SELECT col5, col1 FROM test_table";
+        TestBeanNumbers expected = new TestBeanNumbers(1, null, null, null, "test_value1");
+        Assertions.assertEquals(expected, em.getSingleResult(conn, TestBeanNumbers.class, sql));
+        Assertions.assertEquals(List.of(expected), em.getRowBuffer(conn, TestBeanNumbers.class, sql));
+        em.setGeneratedMappers(true);
+        Assertions.assertEquals(expected, em.getSingleResult(conn, TestBeanNumbers.class, sql));
+        Assertions.assertEquals(new TestBeanPrimitiveNumbers(0, 3L, 0, 0, 3L, 0), em.getSingleResult(conn, TestBeanPrimitiveNumbers.class, "SELECT col3 AS col2, col3 AS col5 FROM test_table"));
+
+        // fields not selected get their default value through the constructor
+        execute("DROP TABLE test_table");
+        execute("CREATE TABLE IF NOT EXISTS test_table (col1 TEXT, col2 INTEGER, col3 BIGINT)");
+        em.insert(conn, new TestRecord("a", 1, 10L));
+        Assertions.assertEquals(new TestRecord("a", 1, null), em.getSingleResult(conn, TestRecord.class, "SELECT col2, col1 FROM test_table"));
+        Assertions.assertEquals(new TestRecord("a", 0, 10L), em.getSingleResult(conn, TestRecord.class, "SELECT col3, col1 FROM test_table"));
+        Assertions.assertEquals(List.of(new TestBeanImmutable("a", 0, 10L)), em.getRowBuffer(conn, TestBeanImmutable.class, "SELECT col3, col1 FROM test_table"));
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -81,4 +251,97 @@ public class TestRowProcessor extends TestSession {
 
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestBeanNumbers {
+
+        @Column(name = "col1")
+        private int col1;
+        @Column(name = "col2")
+        private Integer col2;
+        @Column(name = "col3")
+        private Long col3;
+        @Column(name = "col4")
+        private Double col4;
+        @Column(name = "col5")
+        private String col5;
+
+    }
+
+    public static class TestBeanFieldAccess {
+
+        @Column(name = "col1", fieldAccess = true)
+        private String col1;
+        @Column(name = "col2", fieldAccess = true)
+        private int col2;
+
+    }
+
+    @Table(name = "test_table")
+    public record TestRecord(@Column(name = "col1") String col1,
+                             @Column(name = "col2") int col2,
+                             @Column(name = "col3") Long col3) {
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    public static class TestBeanImmutable {
+
+        @Column(name = "col1")
+        private final String col1;
+        @Column(name = "col2")
+        private final int col2;
+        @Column(name = "col3")
+        private final Long col3;
+
+        @EntityConstructor
+        public TestBeanImmutable(String col1, int col2, Long col3) {
+            this.col1 = col1;
+            this.col2 = col2;
+            this.col3 = col3;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestBeanPrimitiveNumbers {
+
+        @Column(name = "col1")
+        private int col1;
+        @Column(name = "col2")
+        private long col2;
+        @Column(name = "col3")
+        private double col3;
+        @Column(name = "col4")
+        private int col4;
+        @Column(name = "col5")
+        private long col5;
+        @Column(name = "col6")
+        private double col6;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestBeanBoxedNumbers {
+
+        @Column(name = "col1")
+        private Integer col1;
+        @Column(name = "col2")
+        private Long col2;
+        @Column(name = "col3")
+        private Double col3;
+        @Column(name = "col4")
+        private Integer col4;
+        @Column(name = "col5")
+        private Long col5;
+        @Column(name = "col6")
+        private Double col6;
+
+    }
+
 }